@@ -0,0 +1,64 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Tracks which excluded ancestors (see CurveSection) enclose the element currently being read.
+// Each tracked tag name owns one bit, so the exclusion check for a section is a single mask test
+// instead of a walk up the parent chain.
+final class AncestorContext {
+
+    private static final String[] TRACKED_NAMES;
+    private static final int[] SECTION_MASKS;
+
+    static {
+        List<String> names = new ArrayList<>();
+        CurveSection[] sections = CurveSection.values();
+        int[] masks = new int[sections.length];
+        for (CurveSection section : sections) {
+            for (String ancestor : section.getExcludedAncestors()) {
+                int bit = names.indexOf(ancestor);
+                if (bit < 0) {
+                    bit = names.size();
+                    names.add(ancestor);
+                }
+                masks[section.ordinal()] |= 1 << bit;
+            }
+        }
+        if (names.size() > Integer.SIZE) {
+            throw new IllegalStateException("Too many excluded ancestors: " + names);
+        }
+        TRACKED_NAMES = names.toArray(new String[0]);
+        SECTION_MASKS = masks;
+    }
+
+    private final int[] openCount = new int[TRACKED_NAMES.length];
+    private int openMask;
+
+    void enter(String name) {
+        int bit = bitOf(name);
+        if (bit >= 0 && openCount[bit]++ == 0) {
+            openMask |= 1 << bit;
+        }
+    }
+
+    void leave(String name) {
+        int bit = bitOf(name);
+        if (bit >= 0 && --openCount[bit] == 0) {
+            openMask &= ~(1 << bit);
+        }
+    }
+
+    boolean isExcluded(CurveSection section) {
+        return (openMask & SECTION_MASKS[section.ordinal()]) != 0;
+    }
+
+    private static int bitOf(String name) {
+        for (int i = 0; i < TRACKED_NAMES.length; i++) {
+            if (TRACKED_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
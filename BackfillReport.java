@@ -0,0 +1,88 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Per-date outcome of a backfill. A failed date has an error and no LoadResult.
+public class BackfillReport {
+
+    private final List<DateResult> results = Collections.synchronizedList(new ArrayList<>());
+    private long elapsedNanos;
+
+    void add(DateResult result) {
+        results.add(result);
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<DateResult> getResults() {
+        synchronized (results) {
+            List<DateResult> sorted = new ArrayList<>(results);
+            sorted.sort((a, b) -> a.getBusinessDate().compareTo(b.getBusinessDate()));
+            return sorted;
+        }
+    }
+
+    public int getLoadedCount() {
+        return (int) getResults().stream().filter(DateResult::isSuccess).count();
+    }
+
+    public int getFailedCount() {
+        return getResults().size() - getLoadedCount();
+    }
+
+    public long getRowCount() {
+        return getResults().stream().filter(DateResult::isSuccess).mapToLong(r -> r.getLoadResult().getRowCount()).sum();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("Backfill: ").append(getLoadedCount()).append(" dates loaded, ").append(getFailedCount())
+              .append(" failed, ").append(getRowCount()).append(" rows in ").append(elapsedNanos / 1_000_000).append(" ms");
+        for (DateResult result : getResults()) {
+            report.append(System.lineSeparator()).append("  ").append(result);
+        }
+        return report.toString();
+    }
+
+    public static class DateResult {
+        private final String businessDate;
+        private final LoadResult loadResult;
+        private final Exception error;
+
+        DateResult(String businessDate, LoadResult loadResult, Exception error) {
+            this.businessDate = businessDate;
+            this.loadResult = loadResult;
+            this.error = error;
+        }
+
+        public String getBusinessDate() {
+            return businessDate;
+        }
+
+        public LoadResult getLoadResult() {
+            return loadResult;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            return businessDate + ": " + (isSuccess() ? loadResult.toString() : "FAILED " + error);
+        }
+    }
+}
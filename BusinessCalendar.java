@@ -0,0 +1,98 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+// Business days of one location over a fixed range of dates. Previous and next business days are
+// precomputed for every date of the range, so a lookup is an array access.
+public final class BusinessCalendar {
+
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final String location;
+    private final int firstDay; // epoch day of the first date covered
+    private final int[] previous; // epoch day of the previous business day, per covered date
+    private final int[] next; // epoch day of the next business day, per covered date
+
+    private BusinessCalendar(String location, LocalDate from, LocalDate to, int[] businessDays) {
+        this.location = location;
+        this.firstDay = (int) from.toEpochDay();
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        this.previous = new int[days];
+        this.next = new int[days];
+
+        // businessDays is sorted, walk it once for both directions
+        int k = 0;
+        for (int i = 0; i < days; i++) {
+            int day = firstDay + i;
+            while (k < businessDays.length && businessDays[k] < day) {
+                k++;
+            }
+            previous[i] = k > 0 ? businessDays[k - 1] : UNKNOWN;
+            int after = k < businessDays.length && businessDays[k] == day ? k + 1 : k;
+            next[i] = after < businessDays.length ? businessDays[after] : UNKNOWN;
+        }
+    }
+
+    // Calendar from a list of holidays, Saturdays and Sundays are never business days
+    public static BusinessCalendar fromHolidays(String location, LocalDate from, LocalDate to, Set<LocalDate> holidays) {
+        // Look a few days past the range so the first and last covered dates have neighbours
+        LocalDate start = from.minusDays(15);
+        LocalDate end = to.plusDays(15);
+        int[] businessDays = new int[(int) (end.toEpochDay() - start.toEpochDay()) + 1];
+        int count = 0;
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            DayOfWeek dayOfWeek = day.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !holidays.contains(day)) {
+                businessDays[count++] = (int) day.toEpochDay();
+            }
+        }
+        return new BusinessCalendar(location, from, to, Arrays.copyOf(businessDays, count));
+    }
+
+    // Calendar from a collection of known business days (in any order)
+    public static BusinessCalendar fromBusinessDays(String location, LocalDate from, LocalDate to,
+                                                    Collection<LocalDate> days) {
+        int[] businessDays = days.stream().mapToInt(day -> (int) day.toEpochDay()).sorted().distinct().toArray();
+        return new BusinessCalendar(location, from, to, businessDays);
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public LocalDate getFrom() {
+        return LocalDate.ofEpochDay(firstDay);
+    }
+
+    public LocalDate getTo() {
+        return LocalDate.ofEpochDay(firstDay + previous.length - 1L);
+    }
+
+    // True when both neighbours of the date are known to this calendar
+    public boolean covers(LocalDate date) {
+        long offset = date.toEpochDay() - firstDay;
+        return offset >= 0 && offset < previous.length && previous[(int) offset] != UNKNOWN
+                && next[(int) offset] != UNKNOWN;
+    }
+
+    public LocalDate previousBusinessDay(LocalDate date) {
+        return LocalDate.ofEpochDay(lookup(previous, date));
+    }
+
+    public LocalDate nextBusinessDay(LocalDate date) {
+        return LocalDate.ofEpochDay(lookup(next, date));
+    }
+
+    private int lookup(int[] days, LocalDate date) {
+        long offset = date.toEpochDay() - firstDay;
+        if (offset < 0 || offset >= days.length || days[(int) offset] == UNKNOWN) {
+            throw new IllegalArgumentException(date + " is outside the " + location + " calendar ("
+                    + getFrom() + " to " + getTo() + ")");
+        }
+        return days[(int) offset];
+    }
+}
@@ -0,0 +1,121 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Holds one BusinessCalendar per location, loaded once and then answered in memory.
+// A location is loaded from <calendarDirectory>/<location>.txt when that file exists (one holiday
+// per line as yyyy-MM-dd, '#' starts a comment), otherwise from GETPREVIOUSBUSINESSDAY in a single
+// query covering the whole window. Dates outside the loaded window trigger one more load.
+public class BusinessCalendarService {
+
+    // Dates loaded around a requested date that is not covered yet
+    private static final int WINDOW_DAYS = 366;
+
+    // Evaluates GETPREVIOUSBUSINESSDAY for every date of the window in one round trip. The function
+    // returns its date as a string, it is converted to a DATE here so the driver hands back a date
+    private static final String PREVIOUS_BUSINESS_DAYS_QUERY =
+            "SELECT TO_DATE(SUBSTR(GETPREVIOUSBUSINESSDAY(?, 'PARIS', " +
+            "TO_CHAR(TO_DATE(?, 'YYYY-MM-DD') + LEVEL - 1, 'YYYY-MM-DD')), 1, 10), 'YYYY-MM-DD') " +
+            "FROM DUAL CONNECT BY LEVEL <= ?";
+
+    private final Map<String, BusinessCalendar> calendars = new ConcurrentHashMap<>();
+    private volatile String calendarDirectory;
+
+    public void setCalendarDirectory(String calendarDirectory) {
+        this.calendarDirectory = calendarDirectory;
+    }
+
+    public LocalDate previousBusinessDay(Connection connection, String location, LocalDate date) throws Exception {
+        return calendarFor(connection, location, date, date).previousBusinessDay(date);
+    }
+
+    public LocalDate nextBusinessDay(Connection connection, String location, LocalDate date) throws Exception {
+        return calendarFor(connection, location, date, date).nextBusinessDay(date);
+    }
+
+    // Makes sure the calendar of the location covers the range, e.g. before a backfill
+    public BusinessCalendar preload(Connection connection, String location, LocalDate from, LocalDate to) throws Exception {
+        return calendarFor(connection, location, from, to);
+    }
+
+    private BusinessCalendar calendarFor(Connection connection, String location, LocalDate from, LocalDate to)
+            throws Exception {
+        BusinessCalendar calendar = calendars.get(location);
+        if (calendar != null && calendar.covers(from) && calendar.covers(to)) {
+            return calendar;
+        }
+        synchronized (this) {
+            calendar = calendars.get(location);
+            if (calendar != null && calendar.covers(from) && calendar.covers(to)) {
+                return calendar;
+            }
+
+            LocalDate start = from.minusDays(WINDOW_DAYS);
+            LocalDate end = to.plusDays(WINDOW_DAYS);
+            if (calendar != null) {
+                // Keep what was already loaded
+                start = calendar.getFrom().isBefore(start) ? calendar.getFrom() : start;
+                end = calendar.getTo().isAfter(end) ? calendar.getTo() : end;
+            }
+
+            calendar = load(connection, location, start, end);
+            calendars.put(location, calendar);
+            return calendar;
+        }
+    }
+
+    private BusinessCalendar load(Connection connection, String location, LocalDate from, LocalDate to)
+            throws Exception {
+        Path holidayFile = calendarDirectory != null ? Paths.get(calendarDirectory, location + ".txt") : null;
+        if (holidayFile != null && Files.isRegularFile(holidayFile)) {
+            return BusinessCalendar.fromHolidays(location, from, to, readHolidays(holidayFile));
+        }
+        if (connection == null) {
+            throw new Exception("No calendar file and no connection to load the " + location + " calendar");
+        }
+
+        // Every business day is the previous business day of the day after it, so asking for the
+        // previous business day of each date (plus a few days past the end) yields all of them
+        LocalDate end = to.plusDays(15);
+        Set<LocalDate> businessDays = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(PREVIOUS_BUSINESS_DAYS_QUERY)) {
+            statement.setString(1, location);
+            statement.setString(2, from.toString());
+            statement.setInt(3, (int) (end.toEpochDay() - from.toEpochDay()) + 1);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    Date day = rs.getDate(1);
+                    if (day != null) {
+                        businessDays.add(day.toLocalDate());
+                    }
+                }
+            }
+        }
+        return BusinessCalendar.fromBusinessDays(location, from, to, businessDays);
+    }
+
+    private static Set<LocalDate> readHolidays(Path holidayFile) throws IOException {
+        Set<LocalDate> holidays = new HashSet<>();
+        for (String line : Files.readAllLines(holidayFile, StandardCharsets.UTF_8)) {
+            int comment = line.indexOf('#');
+            String value = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (!value.isEmpty()) {
+                holidays.add(LocalDate.parse(value));
+            }
+        }
+        return holidays;
+    }
+}
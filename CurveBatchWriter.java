@@ -0,0 +1,144 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+// Buffers curve points as mkt_yeild_pc rows and runs executeBatch every batchSize rows, so the
+// driver never holds more than one chunk of bound rows. Commit and rollback stay with the caller,
+// all chunks belong to the same transaction.
+// Each point is written once per target location, so one parse can feed several locations.
+// Rows are kept in a CurveRowBuffer until the flush: the constant columns are bound once per batch,
+// Location/Prevdate only when the target changes, and Import_date is taken once per load.
+// The default CurveRowWriter; it closes the statement it was given on close.
+public class CurveBatchWriter implements CurveRowWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurveBatchWriter.class);
+
+    private final PreparedStatement preparedStatement;
+    private final LoadTarget[] targets;
+    private final String businessDate;
+    private final java.sql.Date importDate;
+    private final int batchSize; // <= 0 means a single executeBatch on the final flush
+    private final CurveRowBuffer buffer;
+    private CurveDeltaFilter deltaFilter; // null writes every point
+
+    private long rowCount;
+    private int flushCount;
+    private long flushNanos;
+    private long bindNanos;
+
+    public CurveBatchWriter(PreparedStatement preparedStatement, String location, String businessDate,
+                            String prevDate, int batchSize) {
+        this(preparedStatement, Collections.singletonList(new LoadTarget(location, prevDate)), businessDate, batchSize);
+    }
+
+    public CurveBatchWriter(PreparedStatement preparedStatement, List<LoadTarget> targets, String businessDate,
+                            int batchSize) {
+        this.preparedStatement = preparedStatement;
+        this.targets = targets.toArray(new LoadTarget[0]);
+        this.businessDate = businessDate;
+        this.importDate = new java.sql.Date(System.currentTimeMillis());
+        this.batchSize = batchSize;
+        this.buffer = new CurveRowBuffer(batchSize > 0 ? batchSize : 1024);
+    }
+
+    @Override
+    public void setDeltaFilter(CurveDeltaFilter deltaFilter) {
+        this.deltaFilter = deltaFilter;
+    }
+
+    @Override
+    public void onCurvePoint(CurvePoint point) throws Exception {
+        for (int i = 0; i < targets.length; i++) {
+            if (deltaFilter != null && deltaFilter.isUnchanged(targets[i], point)) {
+                continue; // carried forward from the previous business date
+            }
+            buffer.add(i, point);
+
+            if (batchSize > 0 && buffer.size() >= batchSize) {
+                flush();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws Exception {
+        int pendingRows = buffer.size();
+        if (pendingRows == 0) {
+            return;
+        }
+        long bindStart = System.nanoTime();
+        bindBuffer();
+        long start = System.nanoTime();
+        preparedStatement.executeBatch();
+        long elapsed = System.nanoTime() - start;
+        buffer.clear();
+
+        rowCount += pendingRows;
+        flushCount++;
+        flushNanos += elapsed;
+        bindNanos += start - bindStart;
+        logger.debug("Flush {} wrote {} rows to mkt_yeild_pc in {} ms", flushCount, pendingRows, elapsed / 1_000_000);
+    }
+
+    private void bindBuffer() throws Exception {
+        // Same for every row of the load
+        preparedStatement.setString(2, "PARIS"); // System_location
+        preparedStatement.setString(3, "SUMMIT"); // Application
+        preparedStatement.setString(4, "YCURVE"); // Curvetype
+        preparedStatement.setString(5, businessDate); // Asofdate
+        preparedStatement.setString(7, "MSSEOD"); // Curveid
+        preparedStatement.setNull(10, java.sql.Types.VARCHAR); // Todate (null)
+        preparedStatement.setDate(13, importDate); // Import_date
+
+        int currentTarget = -1;
+        for (int row = 0; row < buffer.size(); row++) {
+            int target = buffer.target(row);
+            if (target != currentTarget) {
+                preparedStatement.setString(1, targets[target].getLocation()); // Location
+                preparedStatement.setString(6, targets[target].getPrevDate()); // Prevdate
+                currentTarget = target;
+            }
+            Tenor tenor = buffer.tenor(row);
+            preparedStatement.setString(8, tenor.getMkttype()); // Mkttype
+            preparedStatement.setString(9, tenor.getTerm()); // Term
+            preparedStatement.setDouble(11, buffer.rate(row)); // Rate (0.0 for SpreadCurve)
+            preparedStatement.setDouble(12, buffer.spread(row)); // Spread (0.0 except for SpreadCurve)
+            preparedStatement.setString(14, buffer.ccy(row)); // Commodity1
+            preparedStatement.setString(15, buffer.index(row)); // Commodity2
+
+            preparedStatement.addBatch();
+        }
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    // Time spent in executeBatch
+    @Override
+    public long getFlushNanos() {
+        return flushNanos;
+    }
+
+    @Override
+    public long getBindNanos() {
+        return bindNanos;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        preparedStatement.close();
+    }
+}
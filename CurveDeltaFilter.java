@@ -0,0 +1,102 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Delta mode: skips curve points whose value is unchanged since the previous business date.
+// Every point is fingerprinted by (section, ccy, index, term) with the bits of its value. After a
+// successful load the fingerprints of the full curve are saved as <snapshotDirectory>/<location>/<date>.snapshot,
+// and the next load of the location compares against the snapshot of its previous business date.
+// Without that snapshot (first run, missed day) every point is written.
+public class CurveDeltaFilter {
+
+    private final Path snapshotDirectory;
+    private final String businessDate;
+    private final Map<String, Map<String, Long>> previous = new HashMap<>(); // per location
+    private final Map<String, Long> current = new HashMap<>();
+    private long carriedForwardCount;
+
+    public CurveDeltaFilter(Path snapshotDirectory, List<LoadTarget> targets, String businessDate) throws IOException {
+        this.snapshotDirectory = snapshotDirectory;
+        this.businessDate = businessDate;
+        for (LoadTarget target : targets) {
+            Path snapshot = snapshotFile(target.getLocation(), target.getPrevDate());
+            if (Files.isRegularFile(snapshot)) {
+                previous.put(target.getLocation(), readSnapshot(snapshot));
+            }
+        }
+    }
+
+    // True when the point has the same value as on the previous business date of the target.
+    // Synchronized for PartitionedCurveRowWriter, whose lanes share the filter.
+    public synchronized boolean isUnchanged(LoadTarget target, CurvePoint point) {
+        String key = point.getSection().ordinal() + "|" + point.getCcy() + "|" + point.getIndex() + "|" + point.getTerm();
+        long bits = Double.doubleToLongBits(point.getValue());
+        current.put(key, bits);
+
+        Map<String, Long> snapshot = previous.get(target.getLocation());
+        if (snapshot != null) {
+            Long previousBits = snapshot.get(key);
+            if (previousBits != null && previousBits == bits) {
+                carriedForwardCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized long getCarriedForwardCount() {
+        return carriedForwardCount;
+    }
+
+    // Call once the load is committed, the snapshot then becomes the base of the next business date
+    public synchronized void saveSnapshots(List<LoadTarget> targets) throws IOException {
+        for (LoadTarget target : targets) {
+            Path snapshot = snapshotFile(target.getLocation(), businessDate);
+            Files.createDirectories(snapshot.getParent());
+            Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(current.size());
+                for (Map.Entry<String, Long> entry : current.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    // Called when saveSnapshots failed after the load was committed: an older snapshot of the date would no
+    // longer match the committed rows, without one the next load writes every point
+    public void deleteSnapshots(List<LoadTarget> targets) throws IOException {
+        for (LoadTarget target : targets) {
+            Path snapshot = snapshotFile(target.getLocation(), businessDate);
+            Files.deleteIfExists(snapshot.resolveSibling(snapshot.getFileName() + ".tmp"));
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private Path snapshotFile(String location, String date) {
+        return snapshotDirectory.resolve(location).resolve(date + ".snapshot");
+    }
+
+    private static Map<String, Long> readSnapshot(Path snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            int size = in.readInt();
+            Map<String, Long> fingerprints = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                fingerprints.put(in.readUTF(), in.readLong());
+            }
+            return fingerprints;
+        }
+    }
+}
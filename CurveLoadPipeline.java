@@ -0,0 +1,80 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Runs the XML reader and the JDBC writer on separate threads with a bounded queue between them,
+// so parsing continues while a batch is in flight to the database. The reader blocks when the
+// queue is full. A failure on either side stops the other one and is rethrown to the caller,
+// which rolls the load back.
+public class CurveLoadPipeline {
+
+    // Marks the end of the input in the queue
+    private static final Object END_OF_INPUT = new Object();
+
+    private final int queueCapacity;
+
+    public CurveLoadPipeline(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int run(CurvePointSource source, CurvePointHandler writer) throws Exception {
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity); // CurvePoints and RejectedPoints
+        ExecutorService readerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "curve-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Future<Integer> reader = readerExecutor.submit(() -> {
+                try {
+                    return source.read(new CurvePointHandler() {
+                        @Override
+                        public void onCurvePoint(CurvePoint point) throws Exception {
+                            queue.put(point);
+                        }
+
+                        @Override
+                        public void onRejectedPoint(RejectedPoint rejected) throws Exception {
+                            queue.put(rejected);
+                        }
+                    });
+                } finally {
+                    queue.put(END_OF_INPUT);
+                }
+            });
+
+            int count = 0;
+            try {
+                Object point;
+                while ((point = queue.take()) != END_OF_INPUT) {
+                    if (point instanceof RejectedPoint) {
+                        writer.onRejectedPoint((RejectedPoint) point);
+                    } else {
+                        writer.onCurvePoint((CurvePoint) point);
+                        count++;
+                    }
+                }
+            } catch (Exception e) {
+                reader.cancel(true); // unblocks the reader if it is waiting on a full queue
+                throw e;
+            }
+
+            // Surface a reader failure, the queue only tells us the reader stopped
+            try {
+                reader.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+            return count;
+        } finally {
+            readerExecutor.shutdownNow();
+        }
+    }
+}
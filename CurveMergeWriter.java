@@ -0,0 +1,162 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+// Upserts the rows of a load into mkt_yeild_pc keyed on (Location, Asofdate, Curveid, Commodity1,
+// Commodity2, Term, Mkttype), so a re-run of a date replaces the corrected points instead of
+// duplicating them. Rows are batch inserted into the staging table
+//   CREATE SEQUENCE mkt_yeild_pc_stg_seq
+//   CREATE GLOBAL TEMPORARY TABLE mkt_yeild_pc_stg ON COMMIT DELETE ROWS
+//       AS SELECT * FROM mkt_yeild_pc WHERE 1 = 0
+//   ALTER TABLE mkt_yeild_pc_stg ADD (Staged_seq NUMBER DEFAULT mkt_yeild_pc_stg_seq.NEXTVAL)
+// and merged with one set-based MERGE on flush. Points that did not change are left untouched, points
+// no longer in the file are kept. A key staged more than once is merged once with its last staged
+// values, as MERGE fails when two source rows hit one target row. Besides a point repeated in the file,
+// this happens when two sections give the same Mkttype, e.g. a SwapRates and a SpreadCurve point of
+// the same ccy, index and term are both AIC: BATCH_INSERT writes both rows, UPSERT keeps the last one.
+// The rows dropped that way are counted (getCollapsedRowCount) and logged as a warning on every flush.
+public class CurveMergeWriter implements CurveRowWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurveMergeWriter.class);
+
+    static final String STAGING_INSERT_SQL = "INSERT INTO mkt_yeild_pc_stg (" + CurveWriterMode.COLUMNS + ") " +
+            CurveWriterMode.VALUES;
+
+    static final String KEY_COLUMNS = "Location, Asofdate, Curveid, Mkttype, Term, Commodity1, Commodity2";
+
+    // Staged rows that share their key with a row staged after them
+    static final String COLLAPSED_ROWS_SQL = "SELECT COUNT(*) FROM (SELECT ROW_NUMBER() OVER (PARTITION BY " +
+            KEY_COLUMNS + " ORDER BY Staged_seq DESC) AS Staged_rank FROM mkt_yeild_pc_stg) WHERE Staged_rank > 1";
+
+    // Commodity1, Commodity2 and Term can be empty, which Oracle stores as NULL, so they are compared with
+    // DECODE; PARTITION BY already groups NULLs together
+    static final String MERGE_SQL = "MERGE INTO mkt_yeild_pc t USING (SELECT * FROM (SELECT st.*, " +
+            "ROW_NUMBER() OVER (PARTITION BY " + KEY_COLUMNS + " ORDER BY Staged_seq DESC) AS Staged_rank " +
+            "FROM mkt_yeild_pc_stg st) WHERE Staged_rank = 1) s " +
+            "ON (t.Location = s.Location AND t.Asofdate = s.Asofdate AND t.Curveid = s.Curveid " +
+            "AND t.Mkttype = s.Mkttype AND DECODE(t.Term, s.Term, 1, 0) = 1 " +
+            "AND DECODE(t.Commodity1, s.Commodity1, 1, 0) = 1 AND DECODE(t.Commodity2, s.Commodity2, 1, 0) = 1) " +
+            "WHEN MATCHED THEN UPDATE SET t.Rate = s.Rate, t.Spread = s.Spread, t.Prevdate = s.Prevdate, " +
+            "t.Import_date = s.Import_date " +
+            "WHERE DECODE(t.Rate, s.Rate, 1, 0) = 0 OR DECODE(t.Spread, s.Spread, 1, 0) = 0 " +
+            "OR DECODE(t.Prevdate, s.Prevdate, 1, 0) = 0 " +
+            "WHEN NOT MATCHED THEN INSERT (" + CurveWriterMode.COLUMNS + ") VALUES (s.Location, s.System_location, s.Application, s.Curvetype, s.Asofdate, " +
+            "s.Prevdate, s.Curveid, s.Mkttype, s.Term, s.Todate, s.Rate, s.Spread, s.Import_date, s.Commodity1, " +
+            "s.Commodity2)";
+
+    private final CurveBatchWriter stagingWriter;
+    private final PreparedStatement collapsedRows;
+    private final PreparedStatement merge;
+    private final PreparedStatement clearStaging;
+
+    private long mergedStagedRows; // staged rows already merged
+    private int mergeCount;
+    private long mergedRowCount;
+    private long collapsedRowCount;
+    private long mergeNanos;
+
+    public CurveMergeWriter(Connection connection, List<LoadTarget> targets, String businessDate,
+                            int batchSize) throws Exception {
+        this.stagingWriter = new CurveBatchWriter(connection.prepareStatement(STAGING_INSERT_SQL), targets,
+                businessDate, batchSize);
+        this.collapsedRows = connection.prepareStatement(COLLAPSED_ROWS_SQL);
+        this.merge = connection.prepareStatement(MERGE_SQL);
+        this.clearStaging = connection.prepareStatement("DELETE FROM mkt_yeild_pc_stg");
+    }
+
+    @Override
+    public void setDeltaFilter(CurveDeltaFilter deltaFilter) {
+        stagingWriter.setDeltaFilter(deltaFilter);
+    }
+
+    @Override
+    public void onCurvePoint(CurvePoint point) throws Exception {
+        stagingWriter.onCurvePoint(point);
+    }
+
+    // Stages the pending rows, then merges everything staged since the last flush
+    @Override
+    public void flush() throws Exception {
+        stagingWriter.flush();
+        if (stagingWriter.getRowCount() == mergedStagedRows) {
+            return;
+        }
+        long start = System.nanoTime();
+        long collapsed;
+        try (ResultSet rs = collapsedRows.executeQuery()) {
+            rs.next();
+            collapsed = rs.getLong(1);
+        }
+        int merged = merge.executeUpdate();
+        clearStaging.executeUpdate(); // the staging rows would otherwise be merged again until commit
+        long elapsed = System.nanoTime() - start;
+
+        mergedStagedRows = stagingWriter.getRowCount();
+        mergeCount++;
+        mergedRowCount += merged;
+        collapsedRowCount += collapsed;
+        if (collapsed > 0) {
+            logger.warn("Merge {}: {} staged rows share their key with a later row and were not merged", mergeCount,
+                    collapsed);
+        }
+        mergeNanos += elapsed;
+        logger.debug("Merge {} inserted or updated {} rows of mkt_yeild_pc in {} ms", mergeCount, merged,
+                elapsed / 1_000_000);
+    }
+
+    // Rows written to the staging table
+    @Override
+    public long getRowCount() {
+        return stagingWriter.getRowCount();
+    }
+
+    // Rows the MERGE inserted or changed, unchanged points are not counted
+    public long getMergedRowCount() {
+        return mergedRowCount;
+    }
+
+    // Staged rows dropped because a later row of the load had the same key
+    public long getCollapsedRowCount() {
+        return collapsedRowCount;
+    }
+
+    @Override
+    public int getFlushCount() {
+        return stagingWriter.getFlushCount() + mergeCount;
+    }
+
+    // Time spent staging and merging
+    @Override
+    public long getFlushNanos() {
+        return stagingWriter.getFlushNanos() + mergeNanos;
+    }
+
+    @Override
+    public long getBindNanos() {
+        return stagingWriter.getBindNanos();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            stagingWriter.close();
+        } finally {
+            try {
+                merge.close();
+            } finally {
+                try {
+                    clearStaging.close();
+                } finally {
+                    collapsedRows.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// One curve point read from the transformed XML, i.e. one mkt_yeild_pc row
+public final class CurvePoint {
+
+    private final CurveSection section;
+    private final String ccy;
+    private final String index;
+    private final Tenor tenor;
+    private final double value;
+
+    public CurvePoint(CurveSection section, String ccy, String index, Tenor tenor, double value) {
+        this.section = section;
+        this.ccy = ccy;
+        this.index = index;
+        this.tenor = tenor;
+        this.value = value;
+    }
+
+    public CurveSection getSection() {
+        return section;
+    }
+
+    public String getCcy() {
+        return ccy;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    public Tenor getTenor() {
+        return tenor;
+    }
+
+    public String getTerm() {
+        return tenor.getTerm();
+    }
+
+    public String getMkttype() {
+        return tenor.getMkttype();
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getRate() {
+        return section.isSpread() ? 0.0 : value;
+    }
+
+    public double getSpread() {
+        return section.isSpread() ? value : 0.0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// Receives curve points as they are read from the transformed XML
+public interface CurvePointHandler {
+
+    void onCurvePoint(CurvePoint point) throws Exception;
+
+    // Receives a point element whose value could not be read. By default the load fails as it always
+    // did; CurveQuarantine sets such points aside instead.
+    default void onRejectedPoint(RejectedPoint rejected) throws Exception {
+        throw new NumberFormatException(rejected.toString());
+    }
+}
@@ -0,0 +1,31 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// Turns the attributes of a point element into a CurvePoint for the handler, or into a RejectedPoint
+// when the value is not a finite number
+final class CurvePointParser {
+
+    private CurvePointParser() {
+    }
+
+    // True when a point was handed to the handler, false when it was rejected
+    static boolean deliver(CurveSection section, String ccy, String index, String term, String value,
+                           TenorSymbolTable tenors, CurvePointHandler handler) throws Exception {
+        RejectReason reason = null;
+        double parsed = 0.0;
+        try {
+            parsed = Double.parseDouble(value);
+            if (Double.isNaN(parsed) || Double.isInfinite(parsed)) {
+                reason = RejectReason.NON_FINITE_VALUE;
+            }
+        } catch (NumberFormatException e) {
+            reason = value.trim().isEmpty() ? RejectReason.MISSING_VALUE : RejectReason.INVALID_VALUE;
+        }
+
+        if (reason != null) {
+            handler.onRejectedPoint(new RejectedPoint(section, ccy, index, term, value, reason));
+            return false;
+        }
+        handler.onCurvePoint(new CurvePoint(section, ccy, index, tenors.lookup(term), parsed));
+        return true;
+    }
+}
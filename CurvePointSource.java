@@ -0,0 +1,7 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// Reads the curve points of one transformed XML input and hands them to the handler
+public interface CurvePointSource {
+
+    int read(CurvePointHandler handler) throws Exception;
+}
@@ -0,0 +1,98 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Quarantine mode: points whose value cannot be read are written to a reject file instead of failing the
+// load, the other points go on to the writer and are committed. The load still fails once more than
+// maxRejectedPoints points were rejected, or when the rejected share of the file exceeds maxRejectedRatio.
+// Rejects go to <rejectDirectory>/<location>/<businessDate>.rejects, one tab separated line per point:
+//   section  ccy  index  term  value  reason
+// The file is written next to it as .tmp and only moved in place once the load is committed.
+public class CurveQuarantine implements CurvePointHandler {
+
+    private final CurvePointHandler writer;
+    private final Path rejectFile;
+    private final Path tempFile;
+    private final int maxRejectedPoints; // < 0 means no limit
+    private final double maxRejectedRatio; // >= 1 means no limit
+    private BufferedWriter out;
+    private long acceptedCount;
+    private long rejectedCount;
+
+    public CurveQuarantine(CurvePointHandler writer, Path rejectDirectory, String location, String businessDate,
+                           int maxRejectedPoints, double maxRejectedRatio) {
+        this.writer = writer;
+        this.rejectFile = rejectDirectory.resolve(location).resolve(businessDate + ".rejects");
+        this.tempFile = rejectFile.resolveSibling(rejectFile.getFileName() + ".tmp");
+        this.maxRejectedPoints = maxRejectedPoints;
+        this.maxRejectedRatio = maxRejectedRatio;
+    }
+
+    @Override
+    public void onCurvePoint(CurvePoint point) throws Exception {
+        acceptedCount++;
+        writer.onCurvePoint(point);
+    }
+
+    @Override
+    public void onRejectedPoint(RejectedPoint rejected) throws Exception {
+        rejectedCount++;
+        if (maxRejectedPoints >= 0 && rejectedCount > maxRejectedPoints) {
+            throw new Exception("More than " + maxRejectedPoints + " rejected curve points, last " + rejected);
+        }
+        if (out == null) {
+            Files.createDirectories(tempFile.getParent());
+            out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8);
+        }
+        out.write(rejected.getSection().getTagName() + '\t' + rejected.getCcy() + '\t' + rejected.getIndex() + '\t'
+                + rejected.getTerm() + '\t' + clean(rejected.getValue()) + '\t' + rejected.getReason());
+        out.newLine();
+    }
+
+    // Call once the source is read, before the load is committed
+    public void checkRejectedRatio() throws Exception {
+        long total = acceptedCount + rejectedCount;
+        if (total > 0 && maxRejectedRatio < 1.0 && rejectedCount > maxRejectedRatio * total) {
+            throw new Exception(rejectedCount + " of " + total + " curve points rejected, more than the allowed "
+                    + maxRejectedRatio * 100 + "%");
+        }
+    }
+
+    // Call once the load is committed; a previous reject file of the date is replaced or removed
+    public void saveRejects() throws IOException {
+        if (out == null) {
+            Files.deleteIfExists(rejectFile);
+            return;
+        }
+        out.close();
+        out = null;
+        Files.move(tempFile, rejectFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Call when the load failed, or when saveRejects failed; the .tmp file is removed either way
+    public void discard() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        Files.deleteIfExists(tempFile);
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public Path getRejectFile() {
+        return rejectFile;
+    }
+
+    // Keeps one line per reject whatever the element text contained
+    private static String clean(String value) {
+        return value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,117 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Column store for the mkt_yeild_pc rows of one batch. Rates and spreads are kept in double[],
+// the target location, term, ccy and index as ints into dictionaries that live for the whole load,
+// so appending a row allocates nothing once the arrays have grown to the batch size.
+final class CurveRowBuffer {
+
+    private final Dictionary<Tenor> tenors = new Dictionary<>();
+    private final Dictionary<String> ccys = new Dictionary<>();
+    private final Dictionary<String> indexes = new Dictionary<>();
+
+    private int size;
+    private int[] target;
+    private int[] tenor;
+    private int[] ccy;
+    private int[] index;
+    private double[] rate;
+    private double[] spread;
+
+    CurveRowBuffer(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        target = new int[capacity];
+        tenor = new int[capacity];
+        ccy = new int[capacity];
+        index = new int[capacity];
+        rate = new double[capacity];
+        spread = new double[capacity];
+    }
+
+    void add(int targetIndex, CurvePoint point) {
+        if (size == rate.length) {
+            grow();
+        }
+        target[size] = targetIndex;
+        tenor[size] = tenors.idOf(point.getTenor());
+        ccy[size] = ccys.idOf(point.getCcy());
+        index[size] = indexes.idOf(point.getIndex());
+        rate[size] = point.getRate();
+        spread[size] = point.getSpread();
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int target(int row) {
+        return target[row];
+    }
+
+    Tenor tenor(int row) {
+        return tenors.valueOf(tenor[row]);
+    }
+
+    String ccy(int row) {
+        return ccys.valueOf(ccy[row]);
+    }
+
+    String index(int row) {
+        return indexes.valueOf(index[row]);
+    }
+
+    double rate(int row) {
+        return rate[row];
+    }
+
+    double spread(int row) {
+        return spread[row];
+    }
+
+    private void grow() {
+        int capacity = rate.length * 2;
+        target = Arrays.copyOf(target, capacity);
+        tenor = Arrays.copyOf(tenor, capacity);
+        ccy = Arrays.copyOf(ccy, capacity);
+        index = Arrays.copyOf(index, capacity);
+        rate = Arrays.copyOf(rate, capacity);
+        spread = Arrays.copyOf(spread, capacity);
+    }
+
+    // Assigns each distinct value a dense int id
+    private static final class Dictionary<T> {
+        private final Map<T, Integer> ids = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+        private T lastValue; // consecutive rows usually repeat the value, so one dictionary per column
+        private int lastId = -1;
+
+        int idOf(T value) {
+            if (value == lastValue && lastId >= 0) {
+                return lastId;
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            lastValue = value;
+            lastId = id;
+            return id;
+        }
+
+        T valueOf(int id) {
+            return values.get(id);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.sql.SQLException;
+
+// Writes curve points as mkt_yeild_pc rows inside the caller's transaction. Backends are created
+// through CurveWriterMode and are interchangeable: the caller feeds the points, calls flush once
+// the source is exhausted, then commits or rolls back the writer and the connection and closes the writer.
+public interface CurveRowWriter extends CurvePointHandler, AutoCloseable {
+
+    // Points the filter reports as unchanged are not written, null writes every point
+    void setDeltaFilter(CurveDeltaFilter deltaFilter);
+
+    // Sends the pending rows to the database
+    void flush() throws Exception;
+
+    long getRowCount();
+
+    int getFlushCount();
+
+    // Time spent sending rows to the database
+    long getFlushNanos();
+
+    // Time spent binding rows to statements
+    long getBindNanos();
+
+    // Commits the rows written on connections the writer opened itself, called just before the caller
+    // commits its own connection
+    default void commit() throws Exception {
+    }
+
+    // Rolls back the rows written on connections the writer opened itself
+    default void rollback() throws Exception {
+    }
+
+    // Only releases JDBC resources, so try-with-resources does not have to handle a bare Exception
+    @Override
+    void close() throws SQLException;
+}
@@ -0,0 +1,68 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// Curve sections of the transformed XML that are loaded into mkt_yeild_pc
+public enum CurveSection {
+
+    // Sections nested in one of the excluded ancestors (e.g. a SwapCurve) are not loaded
+    MONEY_MARKET_QUOTES("MoneyMarketQuotes", "Quote", "tenor", "rateFixingindex", "midRate", false, "SwapCurve"),
+    SWAP_RATES("SwapRates", "Quote", "term", "rateFixingIndex", "midRate", false, "SwapCurve"),
+    INFLATION_SWAP("InflationSwap", "Element", "maturity", "indexType", null, false, "InflationCurve"),
+    SPREAD_CURVE("SpreadCurve", "Quote", "term", "rateFixingIndex", "midRate", true);
+
+    private final String tagName;
+    private final String pointTagName;
+    private final String termAttribute;
+    private final String indexAttribute;
+    private final String valueAttribute; // null when the value is the element text
+    private final boolean spread; // value goes to Spread instead of Rate
+    private final String[] excludedAncestors;
+
+    CurveSection(String tagName, String pointTagName, String termAttribute, String indexAttribute,
+                 String valueAttribute, boolean spread, String... excludedAncestors) {
+        this.tagName = tagName;
+        this.pointTagName = pointTagName;
+        this.termAttribute = termAttribute;
+        this.indexAttribute = indexAttribute;
+        this.valueAttribute = valueAttribute;
+        this.spread = spread;
+        this.excludedAncestors = excludedAncestors;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public String getPointTagName() {
+        return pointTagName;
+    }
+
+    public String getTermAttribute() {
+        return termAttribute;
+    }
+
+    public String getIndexAttribute() {
+        return indexAttribute;
+    }
+
+    public String getValueAttribute() {
+        return valueAttribute;
+    }
+
+    public String[] getExcludedAncestors() {
+        return excludedAncestors.clone();
+    }
+
+    public boolean isSpread() {
+        return spread;
+    }
+
+    // Returns the section for the given tag name, or null if it is not a curve section
+    public static CurveSection forTagName(String tagName) {
+        for (CurveSection section : values()) {
+            if (section.tagName.equals(tagName)) {
+                return section;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Walks the transformed XML document once and routes the curve points of each section
+// to the handler registered for it. Sections without a handler are skipped.
+public class CurveSectionRouter {
+
+    private final Map<CurveSection, CurvePointHandler> handlers = new EnumMap<>(CurveSection.class);
+    private final TenorSymbolTable tenors;
+
+    public CurveSectionRouter(TenorSymbolTable tenors) {
+        this.tenors = tenors;
+    }
+
+    public void register(CurveSection section, CurvePointHandler handler) {
+        handlers.put(section, handler);
+    }
+
+    public int route(Document document) throws Exception {
+        Element root = document.getDocumentElement();
+        AncestorContext ancestors = new AncestorContext();
+        int count = 0;
+
+        // Pre-order walk using sibling links, no NodeList is built
+        Node node = root;
+        while (node != null) {
+            boolean skipChildren = false;
+
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                Element element = (Element) node;
+                String name = element.getTagName();
+
+                CurveSection section = CurveSection.forTagName(name);
+                if (section != null && handlers.containsKey(section) && !ancestors.isExcluded(section)) {
+                    count += readSection(section, element, handlers.get(section));
+                    skipChildren = true; // the section subtree has been read
+                }
+                ancestors.enter(name);
+            }
+
+            // Move to the next node in document order, leaving finished elements on the way up
+            Node next = skipChildren ? null : node.getFirstChild();
+            while (next == null) {
+                if (node.getNodeType() == Node.ELEMENT_NODE) {
+                    ancestors.leave(((Element) node).getTagName());
+                }
+                if (node == root) {
+                    break;
+                }
+                next = node.getNextSibling();
+                if (next == null) {
+                    node = node.getParentNode();
+                }
+            }
+            node = next;
+        }
+
+        return count;
+    }
+
+    // Hands every point element below the section element to the handler
+    private int readSection(CurveSection section, Element sectionElement, CurvePointHandler handler) throws Exception {
+        String ccy = sectionElement.getAttribute("ccy");
+        String index = sectionElement.getAttribute(section.getIndexAttribute());
+        String pointTagName = section.getPointTagName();
+        int count = 0;
+
+        Node node = sectionElement.getFirstChild();
+        while (node != null) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && ((Element) node).getTagName().equals(pointTagName)) {
+                Element element = (Element) node;
+                String term = element.getAttribute(section.getTermAttribute());
+                String value = section.getValueAttribute() != null
+                        ? element.getAttribute(section.getValueAttribute())
+                        : element.getTextContent();
+
+                if (CurvePointParser.deliver(section, ccy, index, term, value, tenors, handler)) {
+                    count++;
+                }
+            }
+
+            Node next = node.getFirstChild();
+            while (next == null && node != sectionElement) {
+                next = node.getNextSibling();
+                if (next == null) {
+                    node = node.getParentNode();
+                }
+            }
+            node = next;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,50 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.sql.Connection;
+import java.util.List;
+
+// Write path used to load mkt_yeild_pc
+public enum CurveWriterMode {
+
+    // Conventional INSERT, executeBatch every batchSize rows
+    BATCH_INSERT {
+        @Override
+        public CurveRowWriter create(Connection connection, List<LoadTarget> targets, String businessDate,
+                                     int batchSize) throws Exception {
+            return new CurveBatchWriter(connection.prepareStatement(INSERT_SQL), targets, businessDate, batchSize);
+        }
+    },
+
+    // Direct-path array insert above the high water mark, no undo for the rows. Oracle rejects a second
+    // direct-path statement on the table in the same transaction (ORA-12838), so all rows of the load are
+    // sent in one executeBatch whatever the batch size. The table is locked until commit.
+    DIRECT_PATH {
+        @Override
+        public CurveRowWriter create(Connection connection, List<LoadTarget> targets, String businessDate,
+                                     int batchSize) throws Exception {
+            return new CurveBatchWriter(connection.prepareStatement(DIRECT_PATH_INSERT_SQL), targets, businessDate, 0);
+        }
+    },
+
+    // Staging batch merged into mkt_yeild_pc, a re-load replaces the points of the date instead of duplicating them
+    UPSERT {
+        @Override
+        public CurveRowWriter create(Connection connection, List<LoadTarget> targets, String businessDate,
+                                     int batchSize) throws Exception {
+            return new CurveMergeWriter(connection, targets, businessDate, batchSize);
+        }
+    };
+
+    static final String COLUMNS = "Location, System_location, Application, Curvetype, Asofdate, " +
+            "Prevdate, Curveid, Mkttype, Term, Todate, Rate, Spread, Import_date, Commodity1, Commodity2";
+
+    static final String VALUES = "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_SQL = "INSERT INTO mkt_yeild_pc (" + COLUMNS + ") " + VALUES;
+
+    static final String DIRECT_PATH_INSERT_SQL = "INSERT /*+ APPEND_VALUES */ INTO mkt_yeild_pc (" + COLUMNS + ") " + VALUES;
+
+    // Writer for the load; it owns the statements it prepares and closes them on close
+    public abstract CurveRowWriter create(Connection connection, List<LoadTarget> targets, String businessDate,
+                                          int batchSize) throws Exception;
+}
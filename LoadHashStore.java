@@ -0,0 +1,63 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+// Records the SHA-256 of the transformed XML loaded for each (location, business date), so a re-run
+// with an identical file can be skipped. Uses the table
+//   CREATE TABLE mkt_yeild_pc_load (Location VARCHAR2(20), Asofdate VARCHAR2(10), Content_hash VARCHAR2(64),
+//                                   Load_date DATE, PRIMARY KEY (Location, Asofdate))
+// The hash is recorded in the same transaction as the rows, so a rolled back load leaves no hash.
+public class LoadHashStore {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static String sha256(InputStream inputStream) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    // Hash of the last committed load, null if the date was never loaded for the location
+    public String loadedHash(Connection connection, String location, String businessDate) throws Exception {
+        String sql = "SELECT Content_hash FROM mkt_yeild_pc_load WHERE Location = ? AND Asofdate = ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, location);
+            statement.setString(2, businessDate);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    public void record(Connection connection, String location, String businessDate, String contentHash) throws Exception {
+        try (PreparedStatement delete = connection.prepareStatement(
+                "DELETE FROM mkt_yeild_pc_load WHERE Location = ? AND Asofdate = ?")) {
+            delete.setString(1, location);
+            delete.setString(2, businessDate);
+            delete.executeUpdate();
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO mkt_yeild_pc_load (Location, Asofdate, Content_hash, Load_date) VALUES (?, ?, ?, ?)")) {
+            insert.setString(1, location);
+            insert.setString(2, businessDate);
+            insert.setString(3, contentHash);
+            insert.setDate(4, new java.sql.Date(System.currentTimeMillis()));
+            insert.executeUpdate();
+        }
+    }
+}
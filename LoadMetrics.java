@@ -0,0 +1,147 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Timings of the stages of one load and point counts of its sections. The stages do not overlap:
+// PARSE is the DOM build, BIND and EXECUTE_BATCH the writer's time binding rows and sending batches,
+// and READ what remains of reading the XML and handing the points over (section routing, or the
+// StAX parse in streaming mode). With partitioned writers BIND and EXECUTE_BATCH are summed over the
+// writer threads and READ includes the loading thread's waits for them. The section figures are
+// another cut of the same time: a section runs from its first point to the first point of the next
+// section, so it includes the binding of its rows and any executeBatch in between.
+public class LoadMetrics {
+
+    public enum Stage {
+        CONNECT, PREVIOUS_DATE, PARSE, READ, BIND, EXECUTE_BATCH, COMMIT
+    }
+
+    private final long[] stageNanos = new long[Stage.values().length];
+    private final long[] sectionPoints = new long[CurveSection.values().length];
+    private final long[] sectionNanos = new long[CurveSection.values().length];
+    private final long[] sectionRejects = new long[CurveSection.values().length];
+    private long bytesParsed;
+
+    void addStageNanos(Stage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+    }
+
+    void setBytesParsed(long bytesParsed) {
+        this.bytesParsed = bytesParsed;
+    }
+
+    public long getStageNanos(Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    // Points read from the section, before the delta filter, including those the writer skips
+    public long getSectionPoints(CurveSection section) {
+        return sectionPoints[section.ordinal()];
+    }
+
+    public long getSectionNanos(CurveSection section) {
+        return sectionNanos[section.ordinal()];
+    }
+
+    // Points whose value could not be read (quarantine mode)
+    public long getSectionRejects(CurveSection section) {
+        return sectionRejects[section.ordinal()];
+    }
+
+    public long getRejectedPoints() {
+        long rejected = 0;
+        for (long sectionReject : sectionRejects) {
+            rejected += sectionReject;
+        }
+        return rejected;
+    }
+
+    public long getBytesParsed() {
+        return bytesParsed;
+    }
+
+    public Map<String, Long> getStageMillis() {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            millis.put(stage.name(), stageNanos[stage.ordinal()] / 1_000_000);
+        }
+        return millis;
+    }
+
+    public Map<String, Long> getSectionPoints() {
+        Map<String, Long> points = new LinkedHashMap<>();
+        for (CurveSection section : CurveSection.values()) {
+            points.put(section.getTagName(), sectionPoints[section.ordinal()]);
+        }
+        return points;
+    }
+
+    public Map<String, Long> getSectionMillis() {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        for (CurveSection section : CurveSection.values()) {
+            millis.put(section.getTagName(), sectionNanos[section.ordinal()] / 1_000_000);
+        }
+        return millis;
+    }
+
+    // Counts the points of each section on their way to the handler; call finish once the source is read
+    SectionCounter countSections(CurvePointHandler handler) {
+        return new SectionCounter(handler);
+    }
+
+    final class SectionCounter implements CurvePointHandler {
+        private final CurvePointHandler handler;
+        private CurveSection currentSection;
+        private long sectionStart;
+
+        private SectionCounter(CurvePointHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void onCurvePoint(CurvePoint point) throws Exception {
+            CurveSection section = point.getSection();
+            if (section != currentSection) {
+                switchTo(section);
+            }
+            sectionPoints[section.ordinal()]++;
+            handler.onCurvePoint(point);
+        }
+
+        @Override
+        public void onRejectedPoint(RejectedPoint rejected) throws Exception {
+            sectionRejects[rejected.getSection().ordinal()]++;
+            handler.onRejectedPoint(rejected);
+        }
+
+        void finish() {
+            switchTo(null);
+        }
+
+        private void switchTo(CurveSection section) {
+            long now = System.nanoTime();
+            if (currentSection != null) {
+                sectionNanos[currentSection.ordinal()] += now - sectionStart;
+            }
+            currentSection = section;
+            sectionStart = now;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            sb.append(sb.length() == 0 ? "" : ", ").append(stage.name().toLowerCase()).append(' ')
+                    .append(stageNanos[stage.ordinal()] / 1_000_000).append(" ms");
+        }
+        for (CurveSection section : CurveSection.values()) {
+            sb.append(", ").append(section.getTagName()).append(' ').append(sectionPoints[section.ordinal()])
+                    .append(" points in ").append(sectionNanos[section.ordinal()] / 1_000_000).append(" ms");
+            if (sectionRejects[section.ordinal()] > 0) {
+                sb.append(" (").append(sectionRejects[section.ordinal()]).append(" rejected)");
+            }
+        }
+        return sb.append(", ").append(bytesParsed).append(" bytes parsed").toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.util.Map;
+
+// JMX view of the transformed XML loads, registered as com.hsbc.stratcomp.fi.transform:type=LoadMetrics.
+// The Last* attributes describe the most recently finished load.
+public interface LoadMetricsMXBean {
+
+    long getLoadCount();
+
+    long getFailedLoadCount();
+
+    long getTotalRowCount();
+
+    String getLastLocation();
+
+    String getLastBusinessDate();
+
+    boolean isLastLoadFailed();
+
+    String getLastFailure();
+
+    long getLastElapsedMillis();
+
+    long getLastRowCount();
+
+    long getLastRejectedPointCount();
+
+    double getLastRowsPerSecond();
+
+    long getLastBytesParsed();
+
+    Map<String, Long> getLastStageMillis();
+
+    Map<String, Long> getLastSectionPoints();
+
+    Map<String, Long> getLastSectionMillis();
+}
@@ -0,0 +1,140 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+
+// Keeps the metrics of the last load and running totals, and publishes them over JMX for the schedulers
+public class LoadMetricsRegistry implements LoadMetricsMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadMetricsRegistry.class);
+
+    static final String OBJECT_NAME = "com.hsbc.stratcomp.fi.transform:type=LoadMetrics";
+
+    private static final LoadMetricsRegistry INSTANCE = register(new LoadMetricsRegistry());
+
+    private long loadCount;
+    private long failedLoadCount;
+    private long totalRowCount;
+    private String lastLocation;
+    private String lastBusinessDate;
+    private String lastFailure;
+    private long lastElapsedNanos;
+    private long lastRowCount;
+    private LoadMetrics lastMetrics;
+
+    public static LoadMetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    private static LoadMetricsRegistry register(LoadMetricsRegistry registry) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(registry, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            logger.warn("Load metrics not registered with JMX: {}", e.toString());
+        }
+        return registry;
+    }
+
+    synchronized void recordLoad(LoadResult result, LoadMetrics metrics) {
+        loadCount++;
+        totalRowCount += result.getRowCount();
+        lastLocation = result.getLocation();
+        lastBusinessDate = result.getBusinessDate();
+        lastFailure = null;
+        lastElapsedNanos = result.getElapsedNanos();
+        lastRowCount = result.getRowCount();
+        lastMetrics = metrics;
+    }
+
+    synchronized void recordFailure(String location, String businessDate, long elapsedNanos, LoadMetrics metrics,
+                                    Exception failure) {
+        loadCount++;
+        failedLoadCount++;
+        lastLocation = location;
+        lastBusinessDate = businessDate;
+        lastFailure = failure.toString();
+        lastElapsedNanos = elapsedNanos;
+        lastRowCount = 0;
+        lastMetrics = metrics;
+    }
+
+    @Override
+    public synchronized long getLoadCount() {
+        return loadCount;
+    }
+
+    @Override
+    public synchronized long getFailedLoadCount() {
+        return failedLoadCount;
+    }
+
+    @Override
+    public synchronized long getTotalRowCount() {
+        return totalRowCount;
+    }
+
+    @Override
+    public synchronized String getLastLocation() {
+        return lastLocation;
+    }
+
+    @Override
+    public synchronized String getLastBusinessDate() {
+        return lastBusinessDate;
+    }
+
+    @Override
+    public synchronized boolean isLastLoadFailed() {
+        return lastFailure != null;
+    }
+
+    @Override
+    public synchronized String getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public synchronized long getLastElapsedMillis() {
+        return lastElapsedNanos / 1_000_000;
+    }
+
+    @Override
+    public synchronized long getLastRowCount() {
+        return lastRowCount;
+    }
+
+    @Override
+    public synchronized long getLastRejectedPointCount() {
+        return lastMetrics != null ? lastMetrics.getRejectedPoints() : 0;
+    }
+
+    @Override
+    public synchronized double getLastRowsPerSecond() {
+        return lastElapsedNanos == 0 ? 0.0 : lastRowCount * 1_000_000_000.0 / lastElapsedNanos;
+    }
+
+    @Override
+    public synchronized long getLastBytesParsed() {
+        return lastMetrics != null ? lastMetrics.getBytesParsed() : 0;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getLastStageMillis() {
+        return lastMetrics != null ? lastMetrics.getStageMillis() : Collections.emptyMap();
+    }
+
+    @Override
+    public synchronized Map<String, Long> getLastSectionPoints() {
+        return lastMetrics != null ? lastMetrics.getSectionPoints() : Collections.emptyMap();
+    }
+
+    @Override
+    public synchronized Map<String, Long> getLastSectionMillis() {
+        return lastMetrics != null ? lastMetrics.getSectionMillis() : Collections.emptyMap();
+    }
+}
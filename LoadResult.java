@@ -0,0 +1,102 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// Outcome of loading one transformed XML into mkt_yeild_pc for one business date
+public class LoadResult {
+
+    private final String location;
+    private final String businessDate;
+    private final long rowCount;
+    private final long carriedForwardCount;
+    private final int batchCount;
+    private final long executeBatchNanos;
+    private final long elapsedNanos;
+    private final boolean alreadyLoaded;
+    private final LoadMetrics metrics;
+
+    public LoadResult(String location, String businessDate, long rowCount, long carriedForwardCount, int batchCount,
+                      long executeBatchNanos, long elapsedNanos) {
+        this(location, businessDate, rowCount, carriedForwardCount, batchCount, executeBatchNanos, elapsedNanos, null);
+    }
+
+    public LoadResult(String location, String businessDate, long rowCount, long carriedForwardCount, int batchCount,
+                      long executeBatchNanos, long elapsedNanos, LoadMetrics metrics) {
+        this.location = location;
+        this.businessDate = businessDate;
+        this.rowCount = rowCount;
+        this.carriedForwardCount = carriedForwardCount;
+        this.batchCount = batchCount;
+        this.executeBatchNanos = executeBatchNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.alreadyLoaded = false;
+        this.metrics = metrics;
+    }
+
+    private LoadResult(String location, String businessDate, long elapsedNanos) {
+        this.location = location;
+        this.businessDate = businessDate;
+        this.rowCount = 0;
+        this.carriedForwardCount = 0;
+        this.batchCount = 0;
+        this.executeBatchNanos = 0;
+        this.elapsedNanos = elapsedNanos;
+        this.alreadyLoaded = true;
+        this.metrics = null;
+    }
+
+    // Result of a load skipped because the same transformed XML was already loaded for the date
+    public static LoadResult alreadyLoaded(String location, String businessDate, long elapsedNanos) {
+        return new LoadResult(location, businessDate, elapsedNanos);
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getBusinessDate() {
+        return businessDate;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    // Points not written because they did not change since the previous business date (delta mode)
+    public long getCarriedForwardCount() {
+        return carriedForwardCount;
+    }
+
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    public long getExecuteBatchNanos() {
+        return executeBatchNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public boolean isAlreadyLoaded() {
+        return alreadyLoaded;
+    }
+
+    // Stage timings of the load, null when the load was skipped
+    public LoadMetrics getMetrics() {
+        return metrics;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowCount * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        if (alreadyLoaded) {
+            return "identical transformed XML already loaded, skipped in " + elapsedNanos / 1_000_000 + " ms";
+        }
+        return rowCount + " rows" + (carriedForwardCount > 0 ? " (" + carriedForwardCount + " carried forward)" : "")
+                + " in " + batchCount + " batches, " + elapsedNanos / 1_000_000 + " ms ("
+                + executeBatchNanos / 1_000_000 + " ms in executeBatch, " + Math.round(getRowsPerSecond()) + " rows/s)";
+    }
+}
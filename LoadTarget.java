@@ -0,0 +1,21 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// A location that curve rows are written for, with its previous business date
+public final class LoadTarget {
+
+    private final String location;
+    private final String prevDate;
+
+    public LoadTarget(String location, String prevDate) {
+        this.location = location;
+        this.prevDate = prevDate;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getPrevDate() {
+        return prevDate;
+    }
+}
@@ -0,0 +1,114 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+// InputStream over a memory-mapped file. The file is mapped in windows of up to WINDOW_SIZE bytes
+// (a single mapping is limited to 2 GB). The parsers still copy from the mapped pages into their own
+// buffers; what this saves is the FileInputStream read into a BufferedInputStream buffer in between.
+// A mapping is only released when its buffer is garbage collected, so the stream drops each window as
+// soon as it moves past it, but the address space of consumed windows stays reserved until the next GC.
+public class MappedFileInputStream extends InputStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedFileInputStream.class);
+
+    static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private ByteBuffer window = EMPTY; // EMPTY while no window is mapped
+
+    private MappedFileInputStream(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        mapWindow(0);
+    }
+
+    // Opens the file memory-mapped, or as a buffered stream when the file system does not support mmap
+    public static InputStream open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new MappedFileInputStream(channel);
+        } catch (IOException | UnsupportedOperationException e) {
+            channel.close();
+            logger.warn("Cannot memory-map {}, reading it as a stream: {}", file, e.toString());
+            return new BufferedInputStream(new FileInputStream(file));
+        }
+    }
+
+    private void mapWindow(long start) throws IOException {
+        window = EMPTY;
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+    }
+
+    // Maps the next window once the current one is consumed, false at the end of the file
+    private boolean ensureAvailable() throws IOException {
+        if (window.hasRemaining()) {
+            return true;
+        }
+        long next = windowStart + window.capacity();
+        if (next >= size) {
+            window = EMPTY;
+            windowStart = size;
+            return false;
+        }
+        mapWindow(next);
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return ensureAvailable() ? window.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int count = Math.min(length, window.remaining());
+        window.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long remaining = size - (windowStart + window.position());
+        long skipped = Math.max(0, Math.min(n, remaining));
+        long target = windowStart + window.position() + skipped;
+        if (target < windowStart + window.capacity()) {
+            window.position((int) (target - windowStart));
+        } else {
+            mapWindow(target);
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return window.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = EMPTY;
+        windowStart = size;
+        channel.close();
+    }
+}
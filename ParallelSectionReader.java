@@ -0,0 +1,176 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Reads the transformed XML with one worker per section (MoneyMarketQuotes, SwapRates, InflationSwap,
+// SpreadCurve), fewer workers share the sections round robin. Every worker streams the file on its own
+// input and StAX reader and only converts the points of its sections, so no parser state is shared.
+// The points are queued per worker and handed to the handler on the calling thread in file order,
+// section element by section element, so the rows go through the caller's writer and connection
+// exactly as with a single reader and the load still commits or rolls back as one unit.
+// Every worker scans the whole file: the mode pays off when converting the points, not the scan, is
+// what keeps the writer waiting. Points are queued in chunks, a worker blocks when its queue is full.
+// A failure on either side stops the others and is rethrown to the caller.
+public class ParallelSectionReader implements CurvePointSource {
+
+    // Marks the end of a worker's input in its queue
+    private static final Object END_OF_INPUT = new Object();
+
+    private static final int CHUNK_SIZE = 256; // points handed over at once
+
+    private final Callable<InputStream> inputSource;
+    private final TenorSymbolTable tenors;
+    private final List<Set<CurveSection>> workerSections = new ArrayList<>();
+    private final int queueCapacity; // in chunks
+
+    public ParallelSectionReader(Callable<InputStream> inputSource, TenorSymbolTable tenors, int workers,
+                                 int queueCapacity) {
+        this.inputSource = inputSource;
+        this.tenors = tenors;
+        this.queueCapacity = Math.max(1, queueCapacity / CHUNK_SIZE);
+        CurveSection[] sections = CurveSection.values();
+        int workerCount = Math.max(1, Math.min(workers, sections.length));
+        for (int w = 0; w < workerCount; w++) {
+            workerSections.add(EnumSet.noneOf(CurveSection.class));
+        }
+        for (CurveSection section : sections) {
+            workerSections.get(section.ordinal() % workerCount).add(section);
+        }
+    }
+
+    @Override
+    public int read(CurvePointHandler handler) throws Exception {
+        int workerCount = workerSections.size();
+        List<BlockingQueue<Object>> queues = new ArrayList<>(); // section indexes and chunks
+        List<Future<?>> workers = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "curve-section-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (Set<CurveSection> sections : workerSections) {
+                BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+                queues.add(queue);
+                workers.add(executor.submit(() -> {
+                    ChunkedQueue chunks = new ChunkedQueue(queue);
+                    try (InputStream inputStream = inputSource.call()) {
+                        int count = new StreamingCurveReader(tenors).read(inputStream, chunks, sections, chunks);
+                        chunks.flush();
+                        return count;
+                    } finally {
+                        queue.put(END_OF_INPUT);
+                    }
+                }));
+            }
+
+            // Each queue holds the section indexes of its worker in increasing order, each followed by the
+            // chunks of points of that section element. The worker whose next section comes first in the file is drained
+            // up to its following section, which gives back the file order.
+            Object[] heads = new Object[workerCount];
+            for (int w = 0; w < workerCount; w++) {
+                heads[w] = nextSection(queues.get(w), workers.get(w));
+            }
+            int count = 0;
+            while (true) {
+                int next = -1;
+                for (int w = 0; w < workerCount; w++) {
+                    if (heads[w] != END_OF_INPUT && (next < 0 || (Integer) heads[w] < (Integer) heads[next])) {
+                        next = w;
+                    }
+                }
+                if (next < 0) {
+                    break;
+                }
+
+                BlockingQueue<Object> queue = queues.get(next);
+                Object item;
+                while (!((item = queue.take()) instanceof Integer) && item != END_OF_INPUT) {
+                    for (Object point : (List<?>) item) {
+                        if (point instanceof RejectedPoint) {
+                            handler.onRejectedPoint((RejectedPoint) point);
+                        } else {
+                            handler.onCurvePoint((CurvePoint) point);
+                            count++;
+                        }
+                    }
+                }
+                heads[next] = item == END_OF_INPUT ? finish(workers.get(next)) : item;
+            }
+            return count;
+        } finally {
+            for (Future<?> worker : workers) {
+                worker.cancel(true); // unblocks a worker waiting on a full queue
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    // Worker side of a queue: the points of a section element go after its index, in chunks
+    private static final class ChunkedQueue implements CurvePointHandler, StreamingCurveReader.SectionListener {
+        private final BlockingQueue<Object> queue;
+        private List<Object> chunk = new ArrayList<>(CHUNK_SIZE); // CurvePoints and RejectedPoints
+
+        ChunkedQueue(BlockingQueue<Object> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void onSectionStart(int index) throws Exception {
+            flush();
+            queue.put(index);
+        }
+
+        @Override
+        public void onCurvePoint(CurvePoint point) throws Exception {
+            add(point);
+        }
+
+        @Override
+        public void onRejectedPoint(RejectedPoint rejected) throws Exception {
+            add(rejected);
+        }
+
+        private void add(Object point) throws Exception {
+            chunk.add(point);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws Exception {
+            if (!chunk.isEmpty()) {
+                queue.put(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+    }
+
+    private static Object nextSection(BlockingQueue<Object> queue, Future<?> worker) throws Exception {
+        Object head = queue.take();
+        return head == END_OF_INPUT ? finish(worker) : head;
+    }
+
+    // Surfaces a worker failure as soon as its queue ends, the queue only tells us the worker stopped
+    private static Object finish(Future<?> worker) throws Exception {
+        try {
+            worker.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+        return END_OF_INPUT;
+    }
+}
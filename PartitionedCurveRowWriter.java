@@ -0,0 +1,298 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Writes mkt_yeild_pc on several sessions at once, split on Commodity1 (the partition key of the table).
+// Each ccy is assigned to one lane the first time it is seen; a lane owns a pooled connection, a writer
+// of the configured mode and a thread, so a partition is only ever written by one session and the rows
+// of a ccy keep their order. Points are handed to the lanes in chunks of batchSize.
+// Nothing is committed until commit(): the lanes are committed one after another and the caller then
+// commits its own connection. A lane failure fails the load and rolls back every lane, after the lane
+// threads have stopped. A failure while committing can leave earlier lanes committed; since the load hash
+// is committed last on the caller's connection the date is not seen as loaded, and because only UPSERT is
+// accepted the re-run of the date replaces those rows instead of duplicating them.
+public class PartitionedCurveRowWriter implements CurveRowWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedCurveRowWriter.class);
+
+    private static final int PENDING_CHUNKS_PER_LANE = 2; // bounds the points held in memory
+    private static final long STOP_WARNING_SECONDS = 30;
+
+    private final Callable<Connection> connectionSource;
+    private final CurveWriterMode mode;
+    private final List<LoadTarget> targets;
+    private final String businessDate;
+    private final int batchSize;
+    private final int laneCount;
+    private final List<Lane> lanes = new ArrayList<>();
+    private final Map<String, Lane> laneByCcy = new HashMap<>();
+    private CurveDeltaFilter deltaFilter;
+    private volatile boolean stopped; // set on rollback or close, chunks are no longer accepted or written
+
+    public PartitionedCurveRowWriter(Callable<Connection> connectionSource, CurveWriterMode mode,
+                                     List<LoadTarget> targets, String businessDate, int batchSize, int laneCount) {
+        if (mode != CurveWriterMode.UPSERT) {
+            // A failed commit can leave some lanes committed, only a MERGE re-run repairs that without
+            // duplicating rows. DIRECT_PATH would also lock the table for the other lanes.
+            throw new IllegalArgumentException(mode + " cannot be written on several connections, use UPSERT");
+        }
+        this.connectionSource = connectionSource;
+        this.mode = mode;
+        this.targets = targets;
+        this.businessDate = businessDate;
+        this.batchSize = batchSize > 0 ? batchSize : 1000;
+        this.laneCount = Math.max(1, laneCount);
+    }
+
+    @Override
+    public void setDeltaFilter(CurveDeltaFilter deltaFilter) {
+        this.deltaFilter = deltaFilter;
+    }
+
+    @Override
+    public void onCurvePoint(CurvePoint point) throws Exception {
+        if (stopped) {
+            throw new IllegalStateException("Curve writer lanes are stopped");
+        }
+        Lane lane = laneByCcy.get(point.getCcy());
+        if (lane == null) {
+            lane = assignLane(point.getCcy());
+        }
+        lane.chunk.add(point);
+        if (lane.chunk.size() >= batchSize) {
+            lane.submitChunk();
+        }
+    }
+
+    // Lanes are opened as new currencies appear, then reused round robin
+    private Lane assignLane(String ccy) throws Exception {
+        Lane lane;
+        if (lanes.size() < laneCount) {
+            lane = new Lane(lanes.size());
+            lanes.add(lane);
+        } else {
+            lane = lanes.get(laneByCcy.size() % laneCount);
+        }
+        laneByCcy.put(ccy, lane);
+        return lane;
+    }
+
+    // Writes the remaining points and flushes every lane, waits for all of them
+    @Override
+    public void flush() throws Exception {
+        List<Future<?>> flushes = new ArrayList<>();
+        for (Lane lane : lanes) {
+            if (!lane.chunk.isEmpty()) {
+                lane.submitChunk();
+            }
+            flushes.add(lane.submit(lane.writer::flush, null));
+        }
+        for (Future<?> flush : flushes) {
+            try {
+                flush.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+        logger.debug("Flushed {} currencies on {} connections", laneByCcy.size(), lanes.size());
+    }
+
+    @Override
+    public void commit() throws Exception {
+        for (Lane lane : lanes) {
+            lane.connection.commit();
+        }
+    }
+
+    @Override
+    public void rollback() throws Exception {
+        stopLanes();
+        Exception failure = null;
+        for (Lane lane : lanes) {
+            try {
+                lane.connection.rollback();
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public long getRowCount() {
+        long rowCount = 0;
+        for (Lane lane : lanes) {
+            rowCount += lane.writer.getRowCount();
+        }
+        return rowCount;
+    }
+
+    @Override
+    public int getFlushCount() {
+        int flushCount = 0;
+        for (Lane lane : lanes) {
+            flushCount += lane.writer.getFlushCount();
+        }
+        return flushCount;
+    }
+
+    // Summed over the lanes, so it can exceed the elapsed time
+    @Override
+    public long getFlushNanos() {
+        long flushNanos = 0;
+        for (Lane lane : lanes) {
+            flushNanos += lane.writer.getFlushNanos();
+        }
+        return flushNanos;
+    }
+
+    @Override
+    public long getBindNanos() {
+        long bindNanos = 0;
+        for (Lane lane : lanes) {
+            bindNanos += lane.writer.getBindNanos();
+        }
+        return bindNanos;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            stopLanes();
+        } catch (InterruptedException e) {
+            // Closing the connection of a lane still writing fails that write, which is all that is left
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while stopping the curve writer lanes, closing their connections");
+        }
+        SQLException failure = null;
+        for (Lane lane : lanes) {
+            try {
+                lane.close();
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Stops taking chunks and waits for every lane thread to finish, so no lane is still writing when its
+    // connection is rolled back or closed. Chunks already queued are skipped, only a write in progress
+    // is waited for.
+    private void stopLanes() throws InterruptedException {
+        stopped = true;
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        for (Lane lane : lanes) {
+            while (!lane.executor.awaitTermination(STOP_WARNING_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Still waiting for curve writer lane {} to finish its write", lane.index);
+            }
+        }
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    // One connection, writer and thread
+    private final class Lane {
+        private final int index;
+        private final Connection connection;
+        private final CurveRowWriter writer;
+        private final ExecutorService executor;
+        private final Semaphore pendingChunks = new Semaphore(PENDING_CHUNKS_PER_LANE);
+        private List<CurvePoint> chunk = new ArrayList<>();
+        private volatile Exception failure;
+
+        Lane(int index) throws Exception {
+            this.index = index;
+            connection = connectionSource.call();
+            try {
+                connection.setAutoCommit(false);
+                writer = mode.create(connection, targets, businessDate, batchSize);
+                writer.setDeltaFilter(deltaFilter);
+            } catch (Exception e) {
+                connection.close();
+                throw e;
+            }
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "curve-writer-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void submitChunk() throws Exception {
+            List<CurvePoint> points = chunk;
+            chunk = new ArrayList<>(batchSize);
+            pendingChunks.acquire();
+            submit(() -> {
+                for (CurvePoint point : points) {
+                    writer.onCurvePoint(point);
+                }
+            }, pendingChunks);
+        }
+
+        // Runs the task on the lane thread after the tasks submitted before it and releases the permit
+        // when done. Once a task fails the lane fails the tasks that follow, the failure reaches the
+        // loading thread on the next submit or on flush.
+        Future<?> submit(Task task, Semaphore permit) throws Exception {
+            Exception laneFailure = failure;
+            if (laneFailure != null) {
+                if (permit != null) {
+                    permit.release();
+                }
+                throw laneFailure;
+            }
+            return executor.submit(() -> {
+                try {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    if (stopped) {
+                        return null;
+                    }
+                    task.run();
+                } catch (Exception e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                    throw e;
+                } finally {
+                    if (permit != null) {
+                        permit.release();
+                    }
+                }
+                return null;
+            });
+        }
+
+        void close() throws SQLException {
+            try {
+                writer.close();
+            } finally {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// Why a point element of the transformed XML could not be loaded
+public enum RejectReason {
+    MISSING_VALUE,    // no rate, e.g. midRate=""
+    INVALID_VALUE,    // not a number, e.g. midRate="1,25"
+    NON_FINITE_VALUE  // NaN or Infinity, which mkt_yeild_pc cannot store
+}
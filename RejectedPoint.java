@@ -0,0 +1,51 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// A point element whose value could not be read, with the raw attributes as found in the XML
+public final class RejectedPoint {
+
+    private final CurveSection section;
+    private final String ccy;
+    private final String index;
+    private final String term;
+    private final String value;
+    private final RejectReason reason;
+
+    public RejectedPoint(CurveSection section, String ccy, String index, String term, String value, RejectReason reason) {
+        this.section = section;
+        this.ccy = ccy;
+        this.index = index;
+        this.term = term;
+        this.value = value;
+        this.reason = reason;
+    }
+
+    public CurveSection getSection() {
+        return section;
+    }
+
+    public String getCcy() {
+        return ccy;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public RejectReason getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return reason + ": " + section.getTagName() + " ccy=" + ccy + " index=" + index + " term=" + term
+                + " value=\"" + value + "\"";
+    }
+}
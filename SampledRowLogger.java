@@ -0,0 +1,53 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.slf4j.Logger;
+
+// Per-row diagnostics for the curve loops without one log line per row. Every row is counted per
+// section; at DEBUG only every sampleEvery-th row of a section and every row whose term could not be
+// classified (neither a tenor nor a futures code, so AIC by default) is logged, and summary() logs one
+// line per section. The term is classified here, whatever Mkttype the caller derived for it. The level is checked once, so a row that is not logged costs a counter and a branch.
+public class SampledRowLogger {
+
+    private final Logger logger;
+    private final int sampleEvery; // <= 0 logs only the unclassified rows
+    private final boolean debug;
+    private final long[] rows = new long[CurveSection.values().length];
+    private final long[] unclassifiedRows = new long[CurveSection.values().length];
+
+    public SampledRowLogger(Logger logger, int sampleEvery) {
+        this.logger = logger;
+        this.sampleEvery = sampleEvery;
+        this.debug = logger.isDebugEnabled();
+    }
+
+    public void row(CurveSection section, String ccy, String index, String term, String value, String mkttype) {
+        int s = section.ordinal();
+        long row = ++rows[s];
+        boolean unclassified = TenorClassifier.AIC.equals(TenorClassifier.classify(term))
+                && Double.isNaN(TenorSymbolTable.yearFraction(term));
+        if (unclassified) {
+            unclassifiedRows[s]++;
+        }
+        if (debug && (unclassified || (sampleEvery > 0 && row % sampleEvery == 0))) {
+            logger.debug("{} row {}: ccy={} index={} term={} value={} mkttype={}{}", section.getTagName(), row, ccy,
+                    index, term, value, mkttype, unclassified ? " (term not classified)" : "");
+        }
+    }
+
+    public long getRowCount(CurveSection section) {
+        return rows[section.ordinal()];
+    }
+
+    public long getUnclassifiedRowCount(CurveSection section) {
+        return unclassifiedRows[section.ordinal()];
+    }
+
+    public void summary() {
+        for (CurveSection section : CurveSection.values()) {
+            int s = section.ordinal();
+            if (rows[s] > 0) {
+                logger.info("{}: {} rows, {} with an unclassified term", section.getTagName(), rows[s], unclassifiedRows[s]);
+            }
+        }
+    }
+}
@@ -13,8 +13,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.Locale;
 
 public class IQServiceTransform {
@@ -28,6 +27,8 @@ public class IQServiceTransform {
     @Autowired
     private TransformCurves transformCurves;
 
+    private final BusinessCalendarService businessCalendars = new BusinessCalendarService();
+
     public void populatePLSTableFromTransformedXML(String location, String businessDate) {
         Connection connection = null;
         PreparedStatement preparedStatement = null;
@@ -52,9 +53,8 @@ public class IQServiceTransform {
 
             NodeList spreadCurveNodes = document.getElementsByTagName("SpreadCurve");
 
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            Date parsedDate = sdf.parse(businessDate);
-            String prevDate = sdf.format(new Date(parsedDate.getTime() - 86400000L)); // Previous date (subtracting 1 day)
+            // Previous business date from the in-memory calendar (loaded once per location)
+            String prevDate = businessCalendars.previousBusinessDay(connection, location, LocalDate.parse(businessDate)).toString();
 
             String sql = "INSERT INTO mkt_yeild_pc (Location, System_location, Application, Curvetype, Asofdate, " +
                          "Prevdate, Curveid, Mkttype, Term, Todate, Rate, Spread, Import_date, Commodity1, Commodity2) " +
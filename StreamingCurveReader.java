@@ -0,0 +1,110 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.Set;
+
+// StAX reader for the transformed XML. Curve points are handed to the handler as soon as
+// their element is read, so memory use does not depend on the size of the file.
+public class StreamingCurveReader {
+
+    private final XMLInputFactory inputFactory;
+    private final TenorSymbolTable tenors;
+
+    public StreamingCurveReader(TenorSymbolTable tenors) {
+        this.tenors = tenors;
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    // Told where each section element that is read starts
+    interface SectionListener {
+        // index numbers the loadable section elements of the file in document order, read or not
+        void onSectionStart(int index) throws Exception;
+    }
+
+    public int read(InputStream inputStream, CurvePointHandler handler) throws Exception {
+        return read(inputStream, handler, EnumSet.allOf(CurveSection.class), null);
+    }
+
+    // Only hands over the points of the given sections, the elements of the others are skipped.
+    // Readers of disjoint sections number the section elements alike, see ParallelSectionReader.
+    int read(InputStream inputStream, CurvePointHandler handler, Set<CurveSection> sections,
+             SectionListener listener) throws Exception {
+        AncestorContext ancestors = new AncestorContext();
+        CurveSection currentSection = null;
+        boolean reading = false; // whether the points of the current section are handed over
+        int sectionIndex = -1;
+        int sectionDepth = 0;
+        int depth = 0;
+        String ccy = null;
+        String index = null;
+        int count = 0;
+
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(inputStream);
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+
+                    if (currentSection == null) {
+                        CurveSection section = CurveSection.forTagName(name);
+                        if (section != null && !ancestors.isExcluded(section)) {
+                            currentSection = section;
+                            sectionDepth = depth;
+                            sectionIndex++;
+                            reading = sections.contains(section);
+                            if (reading) {
+                                ccy = attribute(reader, "ccy");
+                                index = attribute(reader, section.getIndexAttribute());
+                                if (listener != null) {
+                                    listener.onSectionStart(sectionIndex);
+                                }
+                            }
+                        }
+                    } else if (reading && name.equals(currentSection.getPointTagName())) {
+                        String term = attribute(reader, currentSection.getTermAttribute());
+                        String value;
+                        if (currentSection.getValueAttribute() != null) {
+                            value = attribute(reader, currentSection.getValueAttribute());
+                        } else {
+                            value = reader.getElementText(); // consumes the END_ELEMENT
+                            depth--;
+                            name = null;
+                        }
+
+                        if (CurvePointParser.deliver(currentSection, ccy, index, term, value, tenors, handler)) {
+                            count++;
+                        }
+                    }
+
+                    if (name != null) {
+                        ancestors.enter(name);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (currentSection != null && depth == sectionDepth) {
+                        currentSection = null;
+                    }
+                    ancestors.leave(reader.getLocalName());
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+
+    // Missing attributes read as "" to match Element.getAttribute on the DOM path
+    private static String attribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : "";
+    }
+}
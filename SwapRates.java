@@ -12,14 +12,15 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
 
 public class IQServiceTransform {
 
     @Autowired
     private ResourceLoader resourceLoader;
 
+    private final BusinessCalendarService businessCalendars = new BusinessCalendarService();
+
     public void populatePLSTableFromTransformedXML(String transformedXmlPath, String location, String businessDate) {
         Connection connection = null;
         PreparedStatement preparedStatement = null;
@@ -40,9 +41,8 @@ public class IQServiceTransform {
 
             // Get all SwapRates nodes
             NodeList swapRatesNodes = document.getElementsByTagName("SwapRates");
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            Date parsedDate = sdf.parse(businessDate);
-            String prevDate = sdf.format(new Date(parsedDate.getTime() - 86400000L)); // Previous date
+            // Previous business date from the in-memory calendar (loaded once per location)
+            String prevDate = businessCalendars.previousBusinessDay(connection, location, LocalDate.parse(businessDate)).toString();
 
             String sql = "INSERT INTO mkt_yeild_pc (Location, System_location, Application, Curvetype, Asofdate, " +
                          "Prevdate, Curveid, Mkttype, Term, Todate, Rate, Spread, Import_date, Commodity1, Commodity2) " +
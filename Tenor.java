@@ -0,0 +1,46 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// Canonical curve term with its precomputed Mkttype and year fraction, shared by every row
+// using the same term (see TenorSymbolTable). Equal by term: once the table is full, lookups
+// return a new instance per row, which must still be the same key for the row buffers.
+public final class Tenor {
+
+    private final String term;
+    private final String mkttype;
+    private final double yearFraction;
+
+    Tenor(String term, String mkttype, double yearFraction) {
+        this.term = term;
+        this.mkttype = mkttype;
+        this.yearFraction = yearFraction;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public String getMkttype() {
+        return mkttype;
+    }
+
+    // NaN when the term is not a "<n>[DWMY]" tenor, e.g. a futures term like "DEC25"
+    public double getYearFraction() {
+        return yearFraction;
+    }
+
+    // Mkttype and year fraction are derived from the term
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Tenor && term.equals(((Tenor) other).term);
+    }
+
+    @Override
+    public int hashCode() {
+        return term.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return term;
+    }
+}
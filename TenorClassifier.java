@@ -0,0 +1,65 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// Classifies a curve term into its mkt_yeild_pc Mkttype:
+//   "1W", "3M", "10D", "0Y"  -> MM
+//   "DEC25"                  -> FUT
+//   anything else ("1Y", "30Y", blank, ...) -> AIC
+// The term is scanned character by character, no regex is compiled and nothing is allocated.
+public final class TenorClassifier {
+
+    public static final String MM = "MM";
+    public static final String FUT = "FUT";
+    public static final String AIC = "AIC";
+
+    private TenorClassifier() {
+    }
+
+    public static String classify(CharSequence term) {
+        if (term == null) {
+            return AIC;
+        }
+        int length = term.length();
+        if (length < 2) {
+            return AIC;
+        }
+
+        // e.g. "DEC25"
+        if (length == 5 && isUpper(term.charAt(0)) && isUpper(term.charAt(1)) && isUpper(term.charAt(2))
+                && isDigit(term.charAt(3)) && isDigit(term.charAt(4))) {
+            return FUT;
+        }
+
+        // e.g. "1Y", "3M", "10D"
+        int number = 0;
+        for (int i = 0; i < length - 1; i++) {
+            char c = term.charAt(i);
+            if (!isDigit(c)) {
+                return AIC;
+            }
+            int digit = c - '0';
+            if (number > (Integer.MAX_VALUE - digit) / 10) {
+                return AIC; // does not fit an int, same as the Integer.parseInt failure before
+            }
+            number = number * 10 + digit;
+        }
+
+        switch (term.charAt(length - 1)) {
+            case 'D':
+            case 'W':
+            case 'M':
+                return MM;
+            case 'Y':
+                return number < 1 ? MM : AIC;
+            default:
+                return AIC;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+}
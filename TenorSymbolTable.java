@@ -0,0 +1,70 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bounded table of the curve terms seen so far. The same few dozen terms repeat for every
+// currency and curve, so after the first occurrence a row costs one hash lookup and shares
+// the canonical Tenor instead of keeping its own term String and re-deriving its Mkttype.
+// Once the table is full, new terms are still resolved but no longer cached.
+public class TenorSymbolTable {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final Map<String, Tenor> tenors = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public TenorSymbolTable() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public TenorSymbolTable(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Tenor lookup(String term) {
+        Tenor tenor = tenors.get(term);
+        if (tenor == null) {
+            tenor = new Tenor(term, TenorClassifier.classify(term), yearFraction(term));
+            if (tenors.size() < maxSize) {
+                Tenor existing = tenors.putIfAbsent(term, tenor);
+                if (existing != null) {
+                    tenor = existing;
+                }
+            }
+        }
+        return tenor;
+    }
+
+    public int size() {
+        return tenors.size();
+    }
+
+    // Simple year fraction of a "<n>[DWMY]" term (days/365, weeks*7/365, months/12, years), NaN for any other term
+    static double yearFraction(String term) {
+        int length = term.length();
+        if (length < 2) {
+            return Double.NaN;
+        }
+        long number = 0;
+        for (int i = 0; i < length - 1; i++) {
+            char c = term.charAt(i);
+            if (c < '0' || c > '9' || number > Integer.MAX_VALUE) {
+                return Double.NaN;
+            }
+            number = number * 10 + (c - '0');
+        }
+        switch (term.charAt(length - 1)) {
+            case 'D':
+                return number / 365.0;
+            case 'W':
+                return number * 7 / 365.0;
+            case 'M':
+                return number / 12.0;
+            case 'Y':
+                return number;
+            default:
+                return Double.NaN;
+        }
+    }
+}
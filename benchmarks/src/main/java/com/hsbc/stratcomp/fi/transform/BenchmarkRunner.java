@@ -0,0 +1,26 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the ingest benchmarks with the GC profiler, so every result has its allocation per operation
+// (gc.alloc.rate.norm) next to the time. Results are written as JSON for comparing two runs.
+//   java -cp benchmarks/target/benchmarks.jar com.hsbc.stratcomp.fi.transform.BenchmarkRunner [include regex] [result file]
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String include = args.length > 0 ? args[0] : "com\\.hsbc\\.stratcomp\\.fi\\.transform\\..*Benchmark";
+        String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+}
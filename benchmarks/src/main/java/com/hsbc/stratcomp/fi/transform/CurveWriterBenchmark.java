@@ -0,0 +1,98 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+// Loads the same points through every CurveWriterMode into an in-memory H2 database in Oracle mode.
+// H2 ignores the Oracle hints, so this compares the client side of the backends; the direct-path gain
+// itself only shows against Oracle. UPSERT merges into an empty table on every invocation, so it
+// measures the staging and MERGE overhead of a first load.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurveWriterBenchmark {
+
+    @Param({"BATCH_INSERT", "DIRECT_PATH", "UPSERT"})
+    private CurveWriterMode mode;
+
+    @Param({"50000"})
+    private int rows;
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private Connection connection;
+    private CurvePoint[] points;
+
+    @Setup
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:curves;MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        String columns = "Location VARCHAR(20), System_location VARCHAR(20), Application VARCHAR(20), " +
+                "Curvetype VARCHAR(20), Asofdate VARCHAR(10), Prevdate VARCHAR(10), Curveid VARCHAR(20), " +
+                "Mkttype VARCHAR(3), Term VARCHAR(10), Todate VARCHAR(10), Rate DOUBLE, Spread DOUBLE, " +
+                "Import_date DATE, Commodity1 VARCHAR(10), Commodity2 VARCHAR(40)";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS mkt_yeild_pc (" + columns + ")");
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS mkt_yeild_pc_stg_seq");
+            statement.execute("CREATE GLOBAL TEMPORARY TABLE IF NOT EXISTS mkt_yeild_pc_stg (" + columns +
+                    ", Staged_seq NUMBER DEFAULT mkt_yeild_pc_stg_seq.NEXTVAL) ON COMMIT DELETE ROWS");
+        }
+        connection.setAutoCommit(false);
+
+        TenorSymbolTable tenors = new TenorSymbolTable();
+        String[] terms = {"1M", "3M", "6M", "1Y", "2Y", "5Y", "10Y", "30Y"};
+        String[] ccys = {"EUR", "USD", "GBP", "JPY", "CHF"};
+        points = new CurvePoint[rows];
+        for (int i = 0; i < rows; i++) {
+            String ccy = ccys[i % ccys.length];
+            points[i] = new CurvePoint(CurveSection.SWAP_RATES, ccy, ccy + "-" + (i / 40),
+                    tenors.lookup(terms[i % terms.length]), 0.01 + i * 1e-6);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE mkt_yeild_pc");
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Benchmark
+    public long load() throws Exception {
+        try (CurveRowWriter writer = mode.create(connection,
+                Collections.singletonList(new LoadTarget("PARIS", "2024-01-30")), "2024-01-31", batchSize)) {
+            for (CurvePoint point : points) {
+                writer.onCurvePoint(point);
+            }
+            writer.flush();
+            connection.commit();
+            return writer.getRowCount();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+// Stages of a load over a generated transformed XML: DOM parse, routing of the parsed document, StAX
+// read on one thread and on a worker per section, and the whole loadTransformedXML against an in-memory H2 database. Classification and binding are in TenorClassifierBenchmark and
+// CurveBatchWriterBenchmark. BenchmarkRunner runs them all with the allocation profiler.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestBenchmark {
+
+    @Param({"10"})
+    private int currencies;
+
+    @Param({"50", "500"})
+    private int pointsPerSection;
+
+    @Param({"0", "8"})
+    private int nestingDepth;
+
+    private byte[] xml;
+    private Document document;
+    private File directory;
+    private File xmlFile;
+    private Connection connection;
+    private IQServiceTransform transform;
+
+    @Setup
+    public void setUp() throws Exception {
+        TransformedXmlGenerator generator = new TransformedXmlGenerator(currencies, pointsPerSection, nestingDepth);
+        xml = generator.toBytes();
+        document = parse();
+        directory = Files.createTempDirectory("ingest-benchmark").toFile();
+        xmlFile = new File(directory, "transformedXML.xml");
+        generator.write(xmlFile);
+        // Holiday file, so the previous business date does not need GETPREVIOUSBUSINESSDAY
+        Files.write(new File(directory, "PARIS.txt").toPath(), Collections.singletonList("2024-01-01"));
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:ingest;MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS mkt_yeild_pc (Location VARCHAR(20), System_location VARCHAR(20), " +
+                    "Application VARCHAR(20), Curvetype VARCHAR(20), Asofdate VARCHAR(10), Prevdate VARCHAR(10), " +
+                    "Curveid VARCHAR(20), Mkttype VARCHAR(3), Term VARCHAR(10), Todate VARCHAR(10), Rate DOUBLE, " +
+                    "Spread DOUBLE, Import_date DATE, Commodity1 VARCHAR(10), Commodity2 VARCHAR(40))");
+        }
+
+        transform = new IQServiceTransform();
+        transform.setCalendarDirectory(directory.getPath());
+        transform.setStreamingIngest(true);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE mkt_yeild_pc");
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        connection.close();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public Document parseDom() throws Exception {
+        return parse();
+    }
+
+    @Benchmark
+    public int routeDom(Blackhole blackhole) throws Exception {
+        CurveSectionRouter router = new CurveSectionRouter(new TenorSymbolTable());
+        for (CurveSection section : CurveSection.values()) {
+            router.register(section, blackhole::consume);
+        }
+        return router.route(document);
+    }
+
+    @Benchmark
+    public int readStax(Blackhole blackhole) throws Exception {
+        return new StreamingCurveReader(new TenorSymbolTable()).read(new ByteArrayInputStream(xml), blackhole::consume);
+    }
+
+    @Benchmark
+    public int readParallelSections(Blackhole blackhole) throws Exception {
+        return new ParallelSectionReader(() -> new ByteArrayInputStream(xml), new TenorSymbolTable(),
+                CurveSection.values().length, 10000).read(blackhole::consume);
+    }
+
+    @Benchmark
+    public LoadResult loadEndToEnd() throws Exception {
+        return transform.loadTransformedXML(connection, Collections.singletonList("PARIS"), "2024-01-31", xmlFile);
+    }
+
+    private Document parse() throws Exception {
+        Document parsed = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+        parsed.getDocumentElement().normalize();
+        return parsed;
+    }
+}
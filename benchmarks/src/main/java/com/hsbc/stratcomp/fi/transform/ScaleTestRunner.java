@@ -0,0 +1,153 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Loads generated transformed XML files of growing size through loadTransformedXML, once per ingest
+// mode, and prints the runtime and peak heap of every load. A mode that runs out of memory is reported
+// as OOM and skipped for the larger sizes. Without a JDBC URL the rows go to a statement that discards
+// them, so only the ingest is measured.
+//   java -Xmx2g -cp benchmarks/target/benchmarks.jar com.hsbc.stratcomp.fi.transform.ScaleTestRunner [sizes] [jdbcUrl user password]
+// sizes is a comma separated list such as 1KB,1MB,100MB,2GB.
+public class ScaleTestRunner {
+
+    private static final String DEFAULT_SIZES = "1KB,1MB,10MB,100MB,1GB";
+    private static final String LOCATION = "PARIS";
+    private static final String BUSINESS_DATE = "2024-01-31";
+
+    public static void main(String[] args) throws Exception {
+        List<Long> sizes = new ArrayList<>();
+        for (String size : (args.length > 0 ? args[0] : DEFAULT_SIZES).split(",")) {
+            sizes.add(parseSize(size.trim()));
+        }
+        String jdbcUrl = args.length > 1 ? args[1] : null;
+        String username = args.length > 2 ? args[2] : "";
+        String password = args.length > 3 ? args[3] : "";
+
+        File directory = Files.createTempDirectory("scale-test").toFile();
+        File xmlFile = new File(directory, "transformedXML.xml");
+        // Holiday file, so the previous business date does not need GETPREVIOUSBUSINESSDAY
+        Files.write(new File(directory, LOCATION + ".txt").toPath(), Collections.singletonList("2024-01-01"));
+
+        System.out.printf("Max heap %d MB%n", Runtime.getRuntime().maxMemory() >> 20);
+        System.out.printf("%-10s %-6s %12s %10s %12s %14s%n", "size", "mode", "points", "ms", "points/s", "peak heap MB");
+        boolean[] outOfMemory = new boolean[IngestMode.values().length];
+        try {
+            for (long size : sizes) {
+                TransformedXmlGenerator generator = new TransformedXmlGenerator(0, 200, 2);
+                generator.setDecoys(true);
+                generator.setTargetBytes(size);
+                generator.write(xmlFile);
+
+                for (IngestMode mode : IngestMode.values()) {
+                    if (outOfMemory[mode.ordinal()]) {
+                        continue;
+                    }
+                    IQServiceTransform transform = new IQServiceTransform();
+                    transform.setCalendarDirectory(directory.getPath());
+                    transform.setStreamingIngest(mode == IngestMode.STAX);
+
+                    try (Connection connection = jdbcUrl != null
+                            ? DriverManager.getConnection(jdbcUrl, username, password) : discardingConnection()) {
+                        System.gc();
+                        resetPeakHeap();
+                        long start = System.nanoTime();
+                        LoadResult result = transform.loadTransformedXML(connection,
+                                Collections.singletonList(LOCATION), BUSINESS_DATE, xmlFile);
+                        long elapsed = System.nanoTime() - start;
+                        System.out.printf(Locale.ROOT, "%-10s %-6s %12d %10d %12.0f %14d%n", formatSize(xmlFile.length()),
+                                mode, result.getRowCount(), elapsed / 1_000_000,
+                                result.getRowCount() * 1e9 / elapsed, peakHeap() >> 20);
+                    } catch (OutOfMemoryError e) {
+                        outOfMemory[mode.ordinal()] = true;
+                        System.out.printf("%-10s %-6s %12s%n", formatSize(xmlFile.length()), mode, "OOM");
+                    }
+                }
+            }
+        } finally {
+            xmlFile.delete();
+            new File(directory, LOCATION + ".txt").delete();
+            directory.delete();
+        }
+    }
+
+    private enum IngestMode {
+        DOM, STAX
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // Sum of the pool peaks, the pools can peak at different times so this is an upper bound
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    // Connection whose statements accept and discard every row
+    private static Connection discardingConnection() {
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+                ScaleTestRunner.class.getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> defaultValue(method.getReturnType()));
+        return (Connection) Proxy.newProxyInstance(ScaleTestRunner.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> method.getName().startsWith("prepareStatement")
+                        ? statement : defaultValue(method.getReturnType()));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == int[].class) {
+            return new int[0];
+        }
+        return null;
+    }
+
+    private static long parseSize(String size) {
+        String upper = size.toUpperCase(Locale.ROOT);
+        long unit = 1;
+        if (upper.endsWith("KB")) {
+            unit = 1L << 10;
+        } else if (upper.endsWith("MB")) {
+            unit = 1L << 20;
+        } else if (upper.endsWith("GB")) {
+            unit = 1L << 30;
+        }
+        String number = unit == 1 ? upper : upper.substring(0, upper.length() - 2);
+        return Long.parseLong(number.trim()) * unit;
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes >= 1L << 30) {
+            return String.format(Locale.ROOT, "%.1fGB", bytes / (double) (1L << 30));
+        } else if (bytes >= 1L << 20) {
+            return String.format(Locale.ROOT, "%.1fMB", bytes / (double) (1L << 20));
+        }
+        return String.format(Locale.ROOT, "%.1fKB", bytes / 1024.0);
+    }
+}
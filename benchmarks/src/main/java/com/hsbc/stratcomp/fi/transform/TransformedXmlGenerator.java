@@ -0,0 +1,240 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+// Synthetic transformed XML for benchmarks and scale tests. Every currency gets one MoneyMarketQuotes,
+// SwapRates, InflationSwap and SpreadCurve section of pointsPerSection points, wrapped in nestingDepth
+// levels of <Group> elements. With decoys, every currency also gets a SwapCurve and an InflationCurve
+// holding sections the loader must skip. With a target size, currencies are added until the file has
+// reached it (it ends within one point of the target) instead of stopping at the currency count.
+// The XML is streamed, so files of several GB need no memory, and the same settings and seed always
+// give the same bytes.
+public class TransformedXmlGenerator {
+
+    private static final String[] CCYS = {
+        "EUR", "USD", "GBP", "JPY", "CHF", "AUD", "CAD", "SEK", "NOK", "DKK", "NZD", "HKD", "SGD", "PLN", "CZK", "HUF"
+    };
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+
+    private final int currencies;
+    private final int pointsPerSection;
+    private final int nestingDepth;
+    private long seed = 42;
+    private boolean decoys = false;
+    private long targetBytes = 0; // 0 writes exactly currencies currencies
+
+    public TransformedXmlGenerator(int currencies, int pointsPerSection, int nestingDepth) {
+        this.currencies = currencies;
+        this.pointsPerSection = pointsPerSection;
+        this.nestingDepth = nestingDepth;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setDecoys(boolean decoys) {
+        this.decoys = decoys;
+    }
+
+    public void setTargetBytes(long targetBytes) {
+        this.targetBytes = targetBytes;
+    }
+
+    public byte[] toBytes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out);
+        return out.toByteArray();
+    }
+
+    // Returns the number of curve points the loader reads from the file, decoys excluded
+    public long write(File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            long points = write(out);
+            out.flush();
+            return points;
+        }
+    }
+
+    public long write(OutputStream out) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(out);
+        try {
+            XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(counter, "UTF-8");
+            long points = new Document(writer, counter).write();
+            writer.flush();
+            writer.close();
+            return points;
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // State of one generated file
+    private final class Document {
+        private final XMLStreamWriter writer;
+        private final CountingOutputStream counter;
+        private final Random random = new Random(seed);
+        private long points;
+
+        Document(XMLStreamWriter writer, CountingOutputStream counter) {
+            this.writer = writer;
+            this.counter = counter;
+        }
+
+        long write() throws XMLStreamException {
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeCharacters("\n");
+            writer.writeStartElement("Root");
+            writer.writeCharacters("\n");
+            for (int c = 0; targetBytes > 0 ? !targetReached() : c < currencies; c++) {
+                writeCurrency(currency(c));
+            }
+            writer.writeEndElement();
+            writer.writeCharacters("\n");
+            writer.writeEndDocument();
+            return points;
+        }
+
+        private void writeCurrency(String ccy) throws XMLStreamException {
+            for (int level = 0; level < nestingDepth; level++) {
+                writer.writeStartElement("Group");
+                writer.writeAttribute("level", Integer.toString(level));
+            }
+            writer.writeCharacters("\n");
+
+            writeSection(CurveSection.MONEY_MARKET_QUOTES, ccy, ccy + "-IBOR", pointsPerSection, true);
+            writeSection(CurveSection.SWAP_RATES, ccy, ccy + "-OIS", pointsPerSection, true);
+            writeSection(CurveSection.INFLATION_SWAP, ccy, ccy + "-CPI", pointsPerSection, true);
+            writeSection(CurveSection.SPREAD_CURVE, ccy, ccy + "-BASIS", pointsPerSection, true);
+
+            if (decoys && !targetReached()) {
+                int decoyPoints = Math.max(1, pointsPerSection / 4);
+                writer.writeStartElement("SwapCurve");
+                writer.writeAttribute("ccy", ccy);
+                writer.writeCharacters("\n");
+                writeSection(CurveSection.MONEY_MARKET_QUOTES, ccy, ccy + "-IBOR", decoyPoints, false);
+                writeSection(CurveSection.SWAP_RATES, ccy, ccy + "-OIS", decoyPoints, false);
+                writer.writeEndElement();
+                writer.writeCharacters("\n");
+
+                writer.writeStartElement("InflationCurve");
+                writer.writeAttribute("ccy", ccy);
+                writer.writeCharacters("\n");
+                writeSection(CurveSection.INFLATION_SWAP, ccy, ccy + "-CPI", decoyPoints, false);
+                writer.writeEndElement();
+                writer.writeCharacters("\n");
+            }
+
+            for (int level = 0; level < nestingDepth; level++) {
+                writer.writeEndElement();
+            }
+            writer.writeCharacters("\n");
+        }
+
+        private void writeSection(CurveSection section, String ccy, String index, int count, boolean loaded)
+                throws XMLStreamException {
+            if (targetReached()) {
+                return;
+            }
+            writer.writeCharacters(" ");
+            writer.writeStartElement(section.getTagName());
+            writer.writeAttribute("ccy", ccy);
+            writer.writeAttribute(section.getIndexAttribute(), index);
+            writer.writeCharacters("\n");
+            for (int p = 0; p < count && !targetReached(); p++) {
+                double value = rate();
+                writer.writeCharacters("  ");
+                if (section.getValueAttribute() != null) {
+                    writer.writeEmptyElement(section.getPointTagName());
+                    writer.writeAttribute(section.getTermAttribute(), term(section, p));
+                    writer.writeAttribute(section.getValueAttribute(),
+                            Double.toString(section.isSpread() ? value / 100 : value));
+                } else {
+                    writer.writeStartElement(section.getPointTagName());
+                    writer.writeAttribute(section.getTermAttribute(), term(section, p));
+                    writer.writeCharacters(Double.toString(value));
+                    writer.writeEndElement();
+                }
+                writer.writeCharacters("\n");
+                if (loaded) {
+                    points++;
+                }
+            }
+            writer.writeCharacters(" ");
+            writer.writeEndElement();
+            writer.writeCharacters("\n");
+        }
+
+        private boolean targetReached() throws XMLStreamException {
+            if (targetBytes <= 0) {
+                return false;
+            }
+            writer.flush(); // pushes the writer's buffer into the counter, which does not flush further
+            return counter.count >= targetBytes;
+        }
+
+        private double rate() {
+            return Math.round(random.nextDouble() * 500_000) / 100_000.0;
+        }
+    }
+
+    // EUR, USD, ... then EUR1, USD1, ... past the list
+    private static String currency(int c) {
+        String ccy = CCYS[c % CCYS.length];
+        return c < CCYS.length ? ccy : ccy + (c / CCYS.length);
+    }
+
+    private static String term(CurveSection section, int p) {
+        switch (section) {
+            case MONEY_MARKET_QUOTES:
+                return p < 4 ? new String[] {"ON", "1D", "1W", "2W"}[p] : (p - 3) + "M";
+            case SWAP_RATES:
+                // Tenors with an IMM futures strip every fourth point
+                if (p % 4 == 3) {
+                    return MONTHS[(p / 4 * 3 + 2) % 12] + (25 + p / 16 % 75);
+                }
+                return (p / 4 * 3 + p % 4 + 1) + "Y";
+            default:
+                return (p + 1) + "Y";
+        }
+    }
+
+    // Counts the bytes written; flush is left to the owner of the stream, so counting stays cheap
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
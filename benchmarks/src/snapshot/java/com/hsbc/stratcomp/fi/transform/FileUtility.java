@@ -0,0 +1,6 @@
+package com.hsbc.stratcomp.fi.transform;
+
+// Stand-in for the application class of the same name, which is not part of this source tree.
+// IQServiceTransform only has it injected, so an empty class is enough to compile it here.
+public class FileUtility {
+}
@@ -0,0 +1,132 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// CurveMergeWriter against H2 in Oracle mode, with the staging table as documented on the writer
+class CurveMergeWriterTest {
+
+    private final TenorSymbolTable tenors = new TenorSymbolTable();
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:merge;MODE=Oracle", "sa", "");
+        String columns = "Location VARCHAR(20), System_location VARCHAR(20), Application VARCHAR(20), " +
+                "Curvetype VARCHAR(20), Asofdate VARCHAR(10), Prevdate VARCHAR(10), Curveid VARCHAR(20), " +
+                "Mkttype VARCHAR(3), Term VARCHAR(10), Todate VARCHAR(10), Rate DOUBLE, Spread DOUBLE, " +
+                "Import_date DATE, Commodity1 VARCHAR(10), Commodity2 VARCHAR(40)";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE mkt_yeild_pc (" + columns + ")");
+            statement.execute("CREATE SEQUENCE mkt_yeild_pc_stg_seq");
+            statement.execute("CREATE GLOBAL TEMPORARY TABLE mkt_yeild_pc_stg (" + columns +
+                    ", Staged_seq NUMBER DEFAULT mkt_yeild_pc_stg_seq.NEXTVAL) ON COMMIT DELETE ROWS");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void collidingKeysAreMergedOnceWithTheLastValue() throws Exception {
+        try (CurveRowWriter writer = createWriter()) {
+            writer.onCurvePoint(swapRate("EUR", "E6M", "1Y", 0.5));
+            writer.onCurvePoint(swapRate("EUR", "E6M", "2Y", 0.6));
+            writer.onCurvePoint(swapRate("EUR", "E6M", "1Y", 0.7)); // same key as the first point
+            writer.onCurvePoint(swapRate("EUR", "", "1Y", 0.8)); // empty index, stored as NULL
+            writer.onCurvePoint(swapRate("EUR", "", "1Y", 0.9));
+            writer.flush();
+            writer.commit();
+            connection.commit();
+
+            assertEquals(5, writer.getRowCount());
+            assertEquals(3, ((CurveMergeWriter) writer).getMergedRowCount());
+            assertEquals(2, ((CurveMergeWriter) writer).getCollapsedRowCount());
+        }
+
+        assertEquals(3, count("1 = 1"));
+        assertEquals(0.7, rate("Commodity2 = 'E6M' AND Term = '1Y'"));
+        assertEquals(0.9, rate("Commodity2 IS NULL AND Term = '1Y'"));
+    }
+
+    @Test
+    void sectionsWithTheSameKeyAreCountedAsCollapsed() throws Exception {
+        try (CurveRowWriter writer = createWriter()) {
+            writer.onCurvePoint(swapRate("EUR", "E6M", "5Y", 0.5));
+            // Also AIC, so the MERGE key does not tell it from the swap rate
+            writer.onCurvePoint(new CurvePoint(CurveSection.SPREAD_CURVE, "EUR", "E6M", tenors.lookup("5Y"), 0.02));
+            writer.flush();
+            connection.commit();
+
+            assertEquals(1, ((CurveMergeWriter) writer).getCollapsedRowCount());
+        }
+
+        assertEquals(1, count("1 = 1"));
+        assertEquals(0.02, spread("Term = '5Y'"));
+    }
+
+    @Test
+    void reloadUpdatesChangedPointsOnly() throws Exception {
+        load(0.5, 0.6);
+        load(0.5, 0.6);
+        CurveMergeWriter writer = load(0.5, 0.65);
+
+        assertEquals(1, writer.getMergedRowCount());
+        assertEquals(2, count("1 = 1"));
+        assertEquals(0.65, rate("Term = '2Y'"));
+    }
+
+    private CurveMergeWriter load(double oneYear, double twoYears) throws Exception {
+        try (CurveRowWriter writer = createWriter()) {
+            writer.onCurvePoint(swapRate("EUR", "E6M", "1Y", oneYear));
+            writer.onCurvePoint(swapRate("EUR", "E6M", "2Y", twoYears));
+            writer.flush();
+            connection.commit();
+            return (CurveMergeWriter) writer;
+        }
+    }
+
+    private CurveRowWriter createWriter() throws Exception {
+        return CurveWriterMode.UPSERT.create(connection,
+                Collections.singletonList(new LoadTarget("PARIS", "2024-01-30")), "2024-01-31", 2);
+    }
+
+    private CurvePoint swapRate(String ccy, String index, String term, double rate) {
+        return new CurvePoint(CurveSection.SWAP_RATES, ccy, index, tenors.lookup(term), rate);
+    }
+
+    private int count(String condition) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM mkt_yeild_pc WHERE " + condition)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private double rate(String condition) throws Exception {
+        return queryDouble("SELECT Rate FROM mkt_yeild_pc WHERE " + condition);
+    }
+
+    private double spread(String condition) throws Exception {
+        return queryDouble("SELECT Spread FROM mkt_yeild_pc WHERE " + condition);
+    }
+
+    private double queryDouble(String sql) throws Exception {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getDouble(1);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// IQServiceTransform.loadTransformedXML against H2 in Oracle mode, with the PARIS holidays in the calendar directory
+class IQServiceTransformTest {
+
+    private static final String BUSINESS_DATE = "2024-01-31";
+
+    // Three points that load and three that are rejected
+    private static final String[] MIXED_SECTIONS = {
+            "<MoneyMarketQuotes ccy=\"USD\" rateFixingindex=\"SOFR\">",
+            " <Quote tenor=\"1M\" midRate=\"1.1\"/>",
+            " <Quote tenor=\"2M\" midRate=\"abc\"/>",
+            " <Quote tenor=\"3M\" midRate=\"\"/>",
+            "</MoneyMarketQuotes>",
+            "<SwapRates ccy=\"USD\" rateFixingIndex=\"SOFR\"><Quote term=\"10Y\" midRate=\"2.5\"/></SwapRates>",
+            "<InflationSwap ccy=\"EUR\" indexType=\"HICP\">",
+            " <Element maturity=\"5Y\">1.75</Element>",
+            " <Element maturity=\"7Y\">x\ty</Element>",
+            "</InflationSwap>"};
+
+    @TempDir
+    Path dir;
+
+    private Connection connection;
+    private IQServiceTransform transform;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:transform;MODE=Oracle", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE mkt_yeild_pc (Location VARCHAR(20), System_location VARCHAR(20), " +
+                    "Application VARCHAR(20), Curvetype VARCHAR(20), Asofdate VARCHAR(10), Prevdate VARCHAR(10), " +
+                    "Curveid VARCHAR(20), Mkttype VARCHAR(3), Term VARCHAR(10), Todate VARCHAR(10), Rate DOUBLE, " +
+                    "Spread DOUBLE, Import_date DATE, Commodity1 VARCHAR(10), Commodity2 VARCHAR(40))");
+        }
+        Files.write(dir.resolve("PARIS.txt"), Collections.singletonList("2024-01-01"));
+        transform = new IQServiceTransform();
+        transform.setCalendarDirectory(dir.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void snapshotThatCannotBeSavedLeavesTheLoadCommitted() throws Exception {
+        Path blocker = Files.createFile(dir.resolve("blocker")); // the snapshot directory cannot be created below it
+        transform.setDeltaLoad(true);
+        transform.setSnapshotDirectory(blocker.resolve("snapshots").toString());
+
+        LoadResult result = load(
+                "<SwapRates ccy=\"USD\" rateFixingIndex=\"SOFR\">",
+                " <Quote term=\"10Y\" midRate=\"2.5\"/>",
+                " <Quote term=\"20Y\" midRate=\"2.75\"/>",
+                "</SwapRates>");
+
+        assertEquals(2, result.getRowCount());
+        assertEquals(2, count());
+    }
+
+    @Test
+    void quarantinedPointsGoToTheRejectFileAndTheOthersAreCommitted() throws Exception {
+        transform.setQuarantineDirectory(dir.resolve("rejects").toString());
+        transform.setMaxRejectedRatio(0.5);
+
+        LoadResult result = load(MIXED_SECTIONS);
+
+        assertEquals(3, result.getRowCount());
+        assertEquals(3, count());
+        assertEquals(Arrays.asList(
+                "MoneyMarketQuotes\tUSD\tSOFR\t2M\tabc\tINVALID_VALUE",
+                "MoneyMarketQuotes\tUSD\tSOFR\t3M\t\tMISSING_VALUE",
+                "InflationSwap\tEUR\tHICP\t7Y\tx y\tINVALID_VALUE"), Files.readAllLines(rejectFile()));
+        assertFalse(Files.exists(rejectTempFile()));
+    }
+
+    @Test
+    void sectionWorkersLoadTheSameRowsAndRejects() throws Exception {
+        transform.setQuarantineDirectory(dir.resolve("rejects").toString());
+        transform.setMaxRejectedRatio(0.5);
+        transform.setSectionWorkers(4);
+
+        LoadResult result = load(MIXED_SECTIONS);
+
+        assertEquals(3, result.getRowCount());
+        assertEquals(3, count());
+        assertEquals(3, Files.readAllLines(rejectFile()).size());
+    }
+
+    @Test
+    void moreRejectedPointsThanAllowedAbortTheLoad() throws Exception {
+        transform.setQuarantineDirectory(dir.resolve("rejects").toString());
+        transform.setMaxRejectedPoints(2);
+        transform.setMaxRejectedRatio(1.0);
+
+        assertThrows(Exception.class, () -> load(MIXED_SECTIONS));
+
+        assertEquals(0, count());
+        assertFalse(Files.exists(rejectFile()));
+        assertFalse(Files.exists(rejectTempFile()));
+    }
+
+    @Test
+    void rejectedRatioAboveTheLimitAbortsTheLoad() throws Exception {
+        transform.setQuarantineDirectory(dir.resolve("rejects").toString());
+        transform.setMaxRejectedRatio(0.4); // 3 of 6 rejected
+
+        assertThrows(Exception.class, () -> load(MIXED_SECTIONS));
+
+        assertEquals(0, count());
+        assertFalse(Files.exists(rejectFile()));
+        assertFalse(Files.exists(rejectTempFile()));
+    }
+
+    @Test
+    void rejectFileThatCannotBeSavedLeavesTheLoadCommitted() throws Exception {
+        transform.setQuarantineDirectory(dir.resolve("rejects").toString());
+        transform.setMaxRejectedRatio(0.5);
+        Files.createDirectories(rejectFile().resolve("in-the-way")); // the .tmp file cannot replace a directory
+
+        LoadResult result = load(MIXED_SECTIONS);
+
+        assertEquals(3, result.getRowCount());
+        assertEquals(3, count());
+        assertFalse(Files.exists(rejectTempFile()));
+    }
+
+    private Path rejectFile() {
+        return dir.resolve("rejects").resolve("PARIS").resolve(BUSINESS_DATE + ".rejects");
+    }
+
+    private Path rejectTempFile() {
+        return rejectFile().resolveSibling(BUSINESS_DATE + ".rejects.tmp");
+    }
+
+    private LoadResult load(String... sections) throws Exception {
+        File xml = dir.resolve("transformed.xml").toFile();
+        Files.write(xml.toPath(), Arrays.asList("<Root>", String.join("\n", sections), "</Root>"));
+        return transform.loadTransformedXML(connection, Collections.singletonList("PARIS"), BUSINESS_DATE, xml);
+    }
+
+    private int count() throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM mkt_yeild_pc")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
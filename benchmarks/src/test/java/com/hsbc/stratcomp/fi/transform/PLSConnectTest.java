@@ -0,0 +1,114 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.jasypt.util.text.AES256TextEncryptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// PLSConnect in a Spring context over an in-memory H2 database, configured through PLS.<database>.URL
+class PLSConnectTest {
+
+    private static final String DATABASE = "CURVES";
+    private static final String ENCRYPTOR_PASSWORD = "jasypt-key";
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final Map<String, Object> properties = new HashMap<>(); // read live by the environment
+    private AnnotationConfigApplicationContext context;
+    private PLSConnect plsConnect;
+
+    @BeforeEach
+    void setUp() {
+        // A database per test, kept open while the pool replaces its connections
+        properties.put("PLS." + DATABASE + ".URL",
+                "jdbc:h2:mem:pls" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        properties.put("PLS." + DATABASE + ".USERNAME", "sa");
+        properties.put("PLS." + DATABASE + ".POOL.MAX_SIZE", "1");
+        properties.put("PLS." + DATABASE + ".POOL.CONNECTION_TIMEOUT_MS", "1000");
+        properties.put("JASYPT_ENCRYPTOR_PASSWORD", ENCRYPTOR_PASSWORD);
+        properties.put("ENCRYPTED_DB_PASSWORD", encrypt("first"));
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        context.register(PLSConnect.class);
+        context.refresh();
+        plsConnect = context.getBean(PLSConnect.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void borrowsAndReturnsPooledConnections() throws Exception {
+        try (Connection connection = plsConnect.getPLSConnection(DATABASE)) {
+            assertEquals(1, queryInt(connection, "SELECT 1"));
+            assertEquals(1, plsConnect.getPoolMetrics(DATABASE).getActiveConnections());
+        }
+
+        PLSConnect.PoolMetrics metrics = plsConnect.getPoolMetrics(DATABASE);
+        assertEquals(0, metrics.getActiveConnections());
+        assertEquals(1, metrics.getConnectionRequests());
+        assertNull(plsConnect.getPoolMetrics("OTHER"));
+    }
+
+    @Test
+    void rotatedPasswordReplacesPooledConnections() throws Exception {
+        int sessionBefore;
+        try (Connection connection = plsConnect.getPLSConnection(DATABASE);
+             Statement statement = connection.createStatement()) {
+            sessionBefore = queryInt(connection, "SELECT SESSION_ID()");
+            statement.execute("ALTER USER SA SET PASSWORD 'second'");
+        }
+
+        // The idle connection still uses the old password, the next borrow must evict it and log in
+        // again with the new one, the pool holds a single connection
+        properties.put("ENCRYPTED_DB_PASSWORD", encrypt("second"));
+        try (Connection connection = plsConnect.getPLSConnection(DATABASE)) {
+            assertNotEquals(sessionBefore, queryInt(connection, "SELECT SESSION_ID()"));
+        }
+    }
+
+    @Test
+    void destroyClosesThePools() throws Exception {
+        HikariDataSource dataSource = (HikariDataSource) plsConnect.getDataSource(DATABASE);
+        try (Connection connection = plsConnect.getPLSConnection(DATABASE)) {
+            assertEquals(1, queryInt(connection, "SELECT 1"));
+        }
+        assertFalse(dataSource.isClosed());
+
+        context.close(); // calls destroy
+
+        assertTrue(dataSource.isClosed());
+        assertNull(plsConnect.getPoolMetrics(DATABASE));
+    }
+
+    private static String encrypt(String password) {
+        AES256TextEncryptor textEncryptor = new AES256TextEncryptor();
+        textEncryptor.setPassword(ENCRYPTOR_PASSWORD);
+        return textEncryptor.encrypt(password);
+    }
+
+    private static int queryInt(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
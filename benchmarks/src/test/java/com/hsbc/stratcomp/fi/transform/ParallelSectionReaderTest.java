@@ -0,0 +1,85 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The parallel reader must hand the handler the points of a single StAX pass, in the same order
+class ParallelSectionReaderTest {
+
+    private final TenorSymbolTable tenors = new TenorSymbolTable();
+
+    @Test
+    void workersGiveBackTheFileOrder() throws Exception {
+        TransformedXmlGenerator generator = new TransformedXmlGenerator(5, 30, 2);
+        generator.setDecoys(true);
+        byte[] xml = generator.toBytes();
+
+        List<String> expected = new ArrayList<>();
+        new StreamingCurveReader(tenors).read(new ByteArrayInputStream(xml), collector(expected));
+
+        for (int workers : new int[] {2, 3, 4, 8}) {
+            List<String> points = new ArrayList<>();
+            int count = new ParallelSectionReader(() -> new ByteArrayInputStream(xml), tenors, workers, 16)
+                    .read(collector(points));
+
+            assertEquals(expected, points, workers + " workers");
+            assertEquals(expected.size(), count);
+        }
+    }
+
+    @Test
+    void rejectedPointsKeepTheirPlace() throws Exception {
+        byte[] xml = ("<Root>" +
+                "<SwapRates ccy=\"USD\" rateFixingIndex=\"SOFR\"><Quote term=\"1Y\" midRate=\"1.5\"/></SwapRates>" +
+                "<MoneyMarketQuotes ccy=\"USD\" rateFixingindex=\"SOFR\"><Quote tenor=\"1M\" midRate=\"abc\"/></MoneyMarketQuotes>" +
+                "<SwapRates ccy=\"EUR\" rateFixingIndex=\"ESTR\"><Quote term=\"2Y\" midRate=\"NaN\"/></SwapRates>" +
+                "</Root>").getBytes("UTF-8");
+
+        List<String> points = new ArrayList<>();
+        new ParallelSectionReader(() -> new ByteArrayInputStream(xml), tenors, 4, 1).read(collector(points));
+
+        assertEquals(Arrays.asList("SWAP_RATES|USD|1Y", "rejected MONEY_MARKET_QUOTES|USD|1M",
+                "rejected SWAP_RATES|EUR|2Y"), points);
+    }
+
+    @Test
+    void handlerFailureStopsTheWorkers() throws Exception {
+        byte[] xml = new TransformedXmlGenerator(5, 100, 0).toBytes();
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> new ParallelSectionReader(() -> new ByteArrayInputStream(xml), tenors, 4, 4).read(point -> {
+                    throw new IllegalStateException("writer failed");
+                }));
+        assertEquals("writer failed", failure.getMessage());
+    }
+
+    @Test
+    void workerFailureReachesTheCaller() throws Exception {
+        byte[] xml = new TransformedXmlGenerator(5, 100, 0).toBytes();
+        byte[] truncated = Arrays.copyOf(xml, xml.length / 2);
+
+        assertThrows(Exception.class, () -> new ParallelSectionReader(() -> new ByteArrayInputStream(truncated),
+                tenors, 4, 4).read(collector(new ArrayList<>())));
+    }
+
+    private static CurvePointHandler collector(List<String> points) {
+        return new CurvePointHandler() {
+            @Override
+            public void onCurvePoint(CurvePoint point) {
+                points.add(point.getSection() + "|" + point.getCcy() + "|" + point.getTerm());
+            }
+
+            @Override
+            public void onRejectedPoint(RejectedPoint rejected) {
+                points.add("rejected " + rejected.getSection() + "|" + rejected.getCcy() + "|" + rejected.getTerm());
+            }
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// PartitionedCurveRowWriter on several sessions of one in-memory H2 database in Oracle mode
+class PartitionedCurveRowWriterTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final TenorSymbolTable tenors = new TenorSymbolTable();
+    private String url;
+    private Connection connection; // kept open so the database outlives the lane connections
+
+    @BeforeEach
+    void setUp() throws Exception {
+        url = "jdbc:h2:mem:lanes" + DATABASES.incrementAndGet() + ";MODE=Oracle;DB_CLOSE_DELAY=-1";
+        connection = DriverManager.getConnection(url, "sa", "");
+        String columns = "Location VARCHAR(20), System_location VARCHAR(20), Application VARCHAR(20), " +
+                "Curvetype VARCHAR(20), Asofdate VARCHAR(10), Prevdate VARCHAR(10), Curveid VARCHAR(20), " +
+                "Mkttype VARCHAR(3), Term VARCHAR(10), Todate VARCHAR(10), Rate DOUBLE, Spread DOUBLE, " +
+                "Import_date DATE, Commodity1 VARCHAR(10), Commodity2 VARCHAR(40)";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE mkt_yeild_pc (" + columns + ")");
+            statement.execute("CREATE SEQUENCE mkt_yeild_pc_stg_seq");
+            statement.execute("CREATE GLOBAL TEMPORARY TABLE mkt_yeild_pc_stg (" + columns +
+                    ", Staged_seq NUMBER DEFAULT mkt_yeild_pc_stg_seq.NEXTVAL) ON COMMIT DELETE ROWS");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    @Test
+    void committedLanesWriteEveryCurrency() throws Exception {
+        try (CurveRowWriter writer = createWriter()) {
+            writeCurrencies(writer, "EUR", "USD", "GBP");
+            writer.flush();
+            writer.commit();
+        }
+
+        assertEquals(3 * 10, count());
+    }
+
+    @Test
+    void failedLaneRollsBackEveryLane() throws Exception {
+        try (CurveRowWriter writer = createWriter()) {
+            writeCurrencies(writer, "EUR", "USD", "GBP");
+            writer.onCurvePoint(swapRate("CURRENCY-TOO-LONG", "1Y")); // Commodity1 is VARCHAR(10)
+
+            assertThrows(Exception.class, writer::flush);
+            writer.rollback();
+            writer.commit(); // nothing is left on the lane that did flush
+        }
+
+        assertEquals(0, count());
+    }
+
+    @Test
+    void readerFailureRollsBackChunksInFlight() throws Exception {
+        try (CurveRowWriter writer = createWriter()) {
+            writeCurrencies(writer, "EUR", "USD", "GBP"); // no flush, as when the reader throws
+            writer.rollback();
+            writer.commit();
+
+            assertThrows(IllegalStateException.class, () -> writer.onCurvePoint(swapRate("EUR", "1Y")));
+        }
+
+        assertEquals(0, count());
+    }
+
+    @Test
+    void onlyUpsertIsWrittenOnSeveralConnections() {
+        for (CurveWriterMode mode : new CurveWriterMode[] {CurveWriterMode.BATCH_INSERT, CurveWriterMode.DIRECT_PATH}) {
+            assertThrows(IllegalArgumentException.class, () -> new PartitionedCurveRowWriter(this::openConnection,
+                    mode, Collections.singletonList(new LoadTarget("PARIS", "2024-01-30")), "2024-01-31", 2, 2));
+        }
+    }
+
+    private CurveRowWriter createWriter() {
+        return new PartitionedCurveRowWriter(this::openConnection, CurveWriterMode.UPSERT,
+                Collections.singletonList(new LoadTarget("PARIS", "2024-01-30")), "2024-01-31", 2, 2);
+    }
+
+    private Connection openConnection() throws Exception {
+        return DriverManager.getConnection(url, "sa", "");
+    }
+
+    private void writeCurrencies(CurveRowWriter writer, String... ccys) throws Exception {
+        for (String ccy : ccys) {
+            for (int year = 1; year <= 10; year++) {
+                writer.onCurvePoint(swapRate(ccy, year + "Y"));
+            }
+        }
+    }
+
+    private CurvePoint swapRate(String ccy, String term) {
+        return new CurvePoint(CurveSection.SWAP_RATES, ccy, "E6M", tenors.lookup(term), 0.5);
+    }
+
+    private int count() throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM mkt_yeild_pc")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
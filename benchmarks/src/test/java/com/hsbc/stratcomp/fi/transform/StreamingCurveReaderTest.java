@@ -0,0 +1,110 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The StAX reader must hand the handler the same points, in the same order, as the DOM router
+class StreamingCurveReaderTest {
+
+    private final TenorSymbolTable tenors = new TenorSymbolTable();
+
+    @Test
+    void generatedFileWithDecoysMatchesTheDomPath() throws Exception {
+        TransformedXmlGenerator generator = new TransformedXmlGenerator(3, 20, 2);
+        generator.setDecoys(true);
+        byte[] xml = generator.toBytes();
+
+        List<String> streamed = readStreaming(xml);
+
+        assertEquals(readDom(xml), streamed);
+        assertEquals(3 * 20 * CurveSection.values().length, streamed.size());
+    }
+
+    @Test
+    void paddedValuesNestedDecoysAndRejectsMatchTheDomPath() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<Root>\n" +
+                " <MoneyMarketQuotes ccy=\"EUR\" rateFixingindex=\"EURIBOR\">\n" +
+                "  <Quote tenor=\"ON\" midRate=\" 3.9 \"/>\n" +
+                "  <Quote tenor=\"1M\" midRate=\"abc\"/>\n" +
+                "  <Quote tenor=\"3M\" midRate=\"\"/>\n" +
+                " </MoneyMarketQuotes>\n" +
+                " <SwapCurve ccy=\"EUR\">\n" +
+                "  <Group><SwapRates ccy=\"EUR\" rateFixingIndex=\"ESTR\"><Quote term=\"1Y\" midRate=\"9.9\"/></SwapRates></Group>\n" +
+                "  <InflationSwap ccy=\"EUR\" indexType=\"HICP\"><Element maturity=\"2Y\"> 2.1 </Element></InflationSwap>\n" +
+                " </SwapCurve>\n" +
+                " <InflationCurve><InflationSwap ccy=\"EUR\" indexType=\"CPI\"><Element maturity=\"1Y\">9.9</Element></InflationSwap></InflationCurve>\n" +
+                " <SwapRates ccy=\"USD\" rateFixingIndex=\"SOFR\">\n" +
+                "  <Quote term=\"2Y\" midRate=\"NaN\"/>\n" +
+                "  <Group><Quote term=\"5Y\" midRate=\"4.25\"/></Group>\n" +
+                " </SwapRates>\n" +
+                " <InflationSwap ccy=\"GBP\" indexType=\"RPI\">\n" +
+                "  <Element maturity=\"10Y\">\n    3.5\n  </Element>\n" +
+                "  <Element maturity=\"20Y\">3<!-- split -->.6</Element>\n" +
+                " </InflationSwap>\n" +
+                " <SpreadCurve ccy=\"EUR\" rateFixingIndex=\"BASIS\"><Quote term=\"1Y\" midRate=\"0.0012\"/></SpreadCurve>\n" +
+                "</Root>\n";
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+
+        List<String> streamed = readStreaming(bytes);
+
+        assertEquals(readDom(bytes), streamed);
+        assertEquals(Arrays.asList(
+                "MONEY_MARKET_QUOTES|EUR|EURIBOR|ON|AIC|3.9",
+                "rejected MONEY_MARKET_QUOTES|EUR|EURIBOR|1M|INVALID_VALUE",
+                "rejected MONEY_MARKET_QUOTES|EUR|EURIBOR|3M|MISSING_VALUE",
+                "INFLATION_SWAP|EUR|HICP|2Y|" + tenors.lookup("2Y").getMkttype() + "|2.1",
+                "rejected SWAP_RATES|USD|SOFR|2Y|NON_FINITE_VALUE",
+                "SWAP_RATES|USD|SOFR|5Y|AIC|4.25",
+                "INFLATION_SWAP|GBP|RPI|10Y|" + tenors.lookup("10Y").getMkttype() + "|3.5",
+                "INFLATION_SWAP|GBP|RPI|20Y|" + tenors.lookup("20Y").getMkttype() + "|3.6",
+                "SPREAD_CURVE|EUR|BASIS|1Y|AIC|0.0012"), streamed);
+    }
+
+    private List<String> readStreaming(byte[] xml) throws Exception {
+        Collector collector = new Collector();
+        new StreamingCurveReader(tenors).read(new ByteArrayInputStream(xml), collector);
+        return collector.points;
+    }
+
+    // As IQServiceTransform reads the file when streaming ingest is off
+    private List<String> readDom(byte[] xml) throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(xml));
+        document.getDocumentElement().normalize();
+
+        Collector collector = new Collector();
+        CurveSectionRouter router = new CurveSectionRouter(tenors);
+        for (CurveSection section : CurveSection.values()) {
+            router.register(section, collector);
+        }
+        router.route(document);
+        return collector.points;
+    }
+
+    private static final class Collector implements CurvePointHandler {
+
+        private final List<String> points = new ArrayList<>();
+
+        @Override
+        public void onCurvePoint(CurvePoint point) {
+            points.add(point.getSection() + "|" + point.getCcy() + "|" + point.getIndex() + "|" +
+                    point.getTerm() + "|" + point.getMkttype() + "|" + point.getValue());
+        }
+
+        @Override
+        public void onRejectedPoint(RejectedPoint rejected) {
+            points.add("rejected " + rejected.getSection() + "|" + rejected.getCcy() + "|" + rejected.getIndex() +
+                    "|" + rejected.getTerm() + "|" + rejected.getReason());
+        }
+    }
+}
@@ -1,39 +1,241 @@
+package com.hsbc.stratcomp.fi.transform;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.jasypt.util.text.AES256TextEncryptor;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+// Hands out connections from one pool per database, configured from the PLS.<database>.* properties:
+//   PLS.<database>.HOSTNAME / PORT / SID / USERNAME   connection details
+//   PLS.<database>.URL                                full JDBC URL, overrides HOSTNAME/PORT/SID (e.g. jdbc:h2:mem:pls)
+//   PLS.<database>.POOL.MIN_IDLE / MAX_SIZE           pool size (default 1 / 10)
+//   PLS.<database>.POOL.IDLE_TIMEOUT_MS               idle connections above MIN_IDLE are evicted after this (default 10 min)
+//   PLS.<database>.POOL.CONNECTION_TIMEOUT_MS         max wait for a free connection (default 30 s)
+//   PLS.<database>.POOL.VALIDATION_QUERY              test query, the JDBC isValid check is used when not set
+// The password (ENCRYPTED_DB_PASSWORD) is decrypted once and cached per database; when the property
+// changes, it is decrypted again and the pool replaces its connections with ones using the new password.
 @Service
-public class PLSConnect {
+public class PLSConnect implements DisposableBean {
 
     @Autowired
     private Environment env;
 
+    private final Map<String, HikariDataSource> dataSources = new ConcurrentHashMap<>();
+    private final Map<String, WaitStats> waitStats = new ConcurrentHashMap<>();
+    private final Map<String, Credential> credentials = new ConcurrentHashMap<>();
+    private volatile EncryptorHolder encryptorHolder;
+
     public Connection getPLSConnection(String database) throws Exception {
         Connection conn = null;
         try {
-            // JDBC URL construction
-            String sqlConnString = "jdbc:oracle:thin:@" + env.getProperty("PLS." + database + ".HOSTNAME") + ":" +
-                                   env.getProperty("PLS." + database + ".PORT") + "/" +
-                                   env.getProperty("PLS." + database + ".SID");
-
-            // Decrypt the encrypted password
-            String decryptedPassword = decryptPassword(env.getProperty("ENCRYPTED_DB_PASSWORD"));
+            HikariDataSource dataSource = (HikariDataSource) getDataSource(database);
+            refreshPassword(database, dataSource);
 
-            // Get the connection
-            conn = DriverManager.getConnection(sqlConnString, env.getProperty("PLS." + database + ".USERNAME"), decryptedPassword);
+            long start = System.nanoTime();
+            conn = dataSource.getConnection();
+            waitStats.computeIfAbsent(database, key -> new WaitStats()).record(System.nanoTime() - start);
         } catch (Exception e) {
             throw new Exception("Failed to connect to the database", e);
         }
         return conn;
     }
 
-    private String decryptPassword(String encryptedPassword) {
-        AES256TextEncryptor textEncryptor = new AES256TextEncryptor();
-        textEncryptor.setPassword(env.getProperty("JASYPT_ENCRYPTOR_PASSWORD"));
-        return textEncryptor.decrypt(encryptedPassword);
+    public DataSource getDataSource(String database) {
+        return dataSources.computeIfAbsent(database, this::createDataSource);
+    }
+
+    // Current state of the pool for the database, null if no connection was requested yet
+    public PoolMetrics getPoolMetrics(String database) {
+        HikariDataSource dataSource = dataSources.get(database);
+        if (dataSource == null) {
+            return null;
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        WaitStats stats = waitStats.computeIfAbsent(database, key -> new WaitStats());
+        return new PoolMetrics(pool.getActiveConnections(), pool.getIdleConnections(), pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(), stats.count.sum(), stats.totalNanos.sum(), stats.maxNanos.get());
+    }
+
+    @Override
+    public void destroy() {
+        for (HikariDataSource dataSource : dataSources.values()) {
+            dataSource.close();
+        }
+        dataSources.clear();
+    }
+
+    private HikariDataSource createDataSource(String database) {
+        String prefix = "PLS." + database + ".";
+
+        // JDBC URL construction
+        String sqlConnString = env.getProperty(prefix + "URL");
+        if (sqlConnString == null) {
+            sqlConnString = "jdbc:oracle:thin:@" + env.getProperty(prefix + "HOSTNAME") + ":" +
+                            env.getProperty(prefix + "PORT") + "/" +
+                            env.getProperty(prefix + "SID");
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("PLS-" + database);
+        config.setJdbcUrl(sqlConnString);
+        config.setUsername(env.getProperty(prefix + "USERNAME"));
+        config.setPassword(resolveCredential(database).password);
+        config.setMinimumIdle(env.getProperty(prefix + "POOL.MIN_IDLE", Integer.class, 1));
+        config.setMaximumPoolSize(env.getProperty(prefix + "POOL.MAX_SIZE", Integer.class, 10));
+        config.setIdleTimeout(env.getProperty(prefix + "POOL.IDLE_TIMEOUT_MS", Long.class, 600000L));
+        config.setConnectionTimeout(env.getProperty(prefix + "POOL.CONNECTION_TIMEOUT_MS", Long.class, 30000L));
+        String validationQuery = env.getProperty(prefix + "POOL.VALIDATION_QUERY");
+        if (validationQuery != null) {
+            config.setConnectionTestQuery(validationQuery);
+        }
+        config.setRegisterMbeans(true); // pool state is also visible over JMX
+        return new HikariDataSource(config);
+    }
+
+    // Points the pool at the new password when ENCRYPTED_DB_PASSWORD was rotated since the last call
+    private void refreshPassword(String database, HikariDataSource dataSource) {
+        Credential current = credentials.get(database);
+        Credential latest = resolveCredential(database);
+        if (latest != current) {
+            dataSource.getHikariConfigMXBean().setPassword(latest.password);
+            dataSource.getHikariPoolMXBean().softEvictConnections();
+        }
+    }
+
+    // Cached decrypted password, only decrypted again when the encrypted password or the Jasypt key changed
+    private Credential resolveCredential(String database) {
+        String encryptedPassword = env.getProperty("ENCRYPTED_DB_PASSWORD");
+        AES256TextEncryptor textEncryptor = getEncryptor();
+        Credential credential = credentials.get(database);
+        if (credential == null || !credential.matches(encryptedPassword, textEncryptor)) {
+            // Decrypt the encrypted password
+            credential = new Credential(encryptedPassword, textEncryptor, textEncryptor.decrypt(encryptedPassword));
+            credentials.put(database, credential);
+        }
+        return credential;
+    }
+
+    // The encryptor is initialised once and reused until JASYPT_ENCRYPTOR_PASSWORD changes
+    private AES256TextEncryptor getEncryptor() {
+        String encryptorPassword = env.getProperty("JASYPT_ENCRYPTOR_PASSWORD");
+        EncryptorHolder holder = encryptorHolder;
+        if (holder == null || !Objects.equals(holder.encryptorPassword, encryptorPassword)) {
+            AES256TextEncryptor textEncryptor = new AES256TextEncryptor();
+            textEncryptor.setPassword(encryptorPassword);
+            holder = new EncryptorHolder(encryptorPassword, textEncryptor);
+            encryptorHolder = holder;
+        }
+        return holder.textEncryptor;
+    }
+
+    private static class EncryptorHolder {
+        private final String encryptorPassword;
+        private final AES256TextEncryptor textEncryptor;
+
+        EncryptorHolder(String encryptorPassword, AES256TextEncryptor textEncryptor) {
+            this.encryptorPassword = encryptorPassword;
+            this.textEncryptor = textEncryptor;
+        }
+    }
+
+    private static class Credential {
+        private final String encryptedPassword;
+        private final AES256TextEncryptor textEncryptor;
+        private final String password;
+
+        Credential(String encryptedPassword, AES256TextEncryptor textEncryptor, String password) {
+            this.encryptedPassword = encryptedPassword;
+            this.textEncryptor = textEncryptor;
+            this.password = password;
+        }
+
+        boolean matches(String encryptedPassword, AES256TextEncryptor textEncryptor) {
+            return this.textEncryptor == textEncryptor && Objects.equals(this.encryptedPassword, encryptedPassword);
+        }
+    }
+
+    // Time spent in getPLSConnection waiting for a pooled connection
+    private static class WaitStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    public static class PoolMetrics {
+        private final int activeConnections;
+        private final int idleConnections;
+        private final int totalConnections;
+        private final int threadsAwaitingConnection;
+        private final long connectionRequests;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+
+        PoolMetrics(int activeConnections, int idleConnections, int totalConnections, int threadsAwaitingConnection,
+                    long connectionRequests, long totalWaitNanos, long maxWaitNanos) {
+            this.activeConnections = activeConnections;
+            this.idleConnections = idleConnections;
+            this.totalConnections = totalConnections;
+            this.threadsAwaitingConnection = threadsAwaitingConnection;
+            this.connectionRequests = connectionRequests;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public int getActiveConnections() {
+            return activeConnections;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        public int getTotalConnections() {
+            return totalConnections;
+        }
+
+        public int getThreadsAwaitingConnection() {
+            return threadsAwaitingConnection;
+        }
+
+        public long getConnectionRequests() {
+            return connectionRequests;
+        }
+
+        public long getTotalWaitNanos() {
+            return totalWaitNanos;
+        }
+
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        public double getAverageWaitMillis() {
+            return connectionRequests == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / connectionRequests;
+        }
+
+        @Override
+        public String toString() {
+            return "active=" + activeConnections + ", idle=" + idleConnections + ", total=" + totalConnections
+                    + ", waiting=" + threadsAwaitingConnection + ", avgWaitMs=" + getAverageWaitMillis()
+                    + ", maxWaitMs=" + maxWaitNanos / 1_000_000;
+        }
     }
 }
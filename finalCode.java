@@ -3,17 +3,23 @@ package com.hsbc.stratcomp.fi.transform;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ResourceLoader;
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class IQServiceTransform {
 
@@ -26,69 +32,163 @@ public class IQServiceTransform {
   @Autowired
   private TransformCurves transformCurves;
 
-    public void populatePLSTableFromTransformedXML(String location, String businessDate) {
-        Connection connection = null;
-        PreparedStatement preparedStatement = null;
+  @Autowired(required = false)
+  private PLSConnect plsConnect;
 
-        try {
-            // Oracle DB connection setup
-            String jdbcUrl = "jdbc:oracle:thin:@//host:port/service";
-            String username = "your_db_username";
-            String password = "your_db_password";
-            connection = DriverManager.getConnection(jdbcUrl, username, password);
-            connection.setAutoCommit(false); // for batch processing
+    // PLS database alias; when set, connections come from the PLSConnect pool for it
+    private String plsDatabase;
 
-            // Parse the transformed XML file
+    public void setPlsDatabase(String plsDatabase) {
+        this.plsDatabase = plsDatabase;
+    }
 
-            String xdsFilePath = System.getProperty("user.dir") +"/xds/transformedXML.xml";
-            File xmlFile = new File(xdsFilePath);
+    // Curve terms shared across loads, see TenorSymbolTable
+    private final TenorSymbolTable tenorSymbolTable = new TenorSymbolTable();
 
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(xmlFile);
-            document.getDocumentElement().normalize();
+    // Business day calendars per location, loaded once and shared across loads
+    private final BusinessCalendarService businessCalendars = new BusinessCalendarService();
 
-            // Prepare date formats
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            Date parsedDate = sdf.parse(businessDate);
-            String prevDate = sdf.format(new Date(parsedDate.getTime() - 86400000L)); // Previous date
+    // Directory with <location>.txt holiday files, locations without a file use GETPREVIOUSBUSINESSDAY
+    public void setCalendarDirectory(String calendarDirectory) {
+        businessCalendars.setCalendarDirectory(calendarDirectory);
+    }
 
-            // Common SQL for all nodes
-            String sql = "INSERT INTO mkt_yeild_pc (Location, System_location, Application, Curvetype, Asofdate, " +
-                         "Prevdate, Curveid, Mkttype, Term, Todate, Rate, Spread, Import_date, Commodity1, Commodity2) " +
-                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // When set, the transformed XML is read with StAX instead of being parsed into a DOM
+    private boolean streamingIngest = false;
 
-            preparedStatement = connection.prepareStatement(sql);
+    public void setStreamingIngest(boolean streamingIngest) {
+        this.streamingIngest = streamingIngest;
+    }
 
-            // Process MoneyMarketQuotes
-            processMoneyMarketQuotes(document, preparedStatement, location, businessDate, prevDate);
+    // When set, the transformed XML is memory-mapped instead of read through a FileInputStream
+    private boolean memoryMappedInput = false;
 
-            // Process SwapRates
-            processSwapRates(document, preparedStatement, location, businessDate, prevDate);
+    public void setMemoryMappedInput(boolean memoryMappedInput) {
+        this.memoryMappedInput = memoryMappedInput;
+    }
 
-            // Process InflationSwap
-            processInflationSwap(document, preparedStatement, location, businessDate, prevDate);
+    // Rows sent per executeBatch, 0 sends everything in one batch at the end of the load
+    private int batchSize = 1000;
 
-            // Process SpreadCurve
-            processSpreadCurve(document, preparedStatement, location, businessDate, prevDate);
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
 
-            // Execute batch insert
-            preparedStatement.executeBatch();
-            connection.commit();
-            System.out.println("Data successfully inserted into mkt_yeild_pc.");
+    // Write path for mkt_yeild_pc, see CurveWriterMode
+    private CurveWriterMode writerMode = CurveWriterMode.BATCH_INSERT;
+
+    public void setWriterMode(CurveWriterMode writerMode) {
+        this.writerMode = writerMode;
+    }
+
+    // Connections writing mkt_yeild_pc in parallel, rows are split on Commodity1 (see
+    // PartitionedCurveRowWriter). 0 or 1 writes on the loading connection. More than 1 needs the UPSERT mode.
+    private int partitionWriters = 0;
+
+    public void setPartitionWriters(int partitionWriters) {
+        this.partitionWriters = partitionWriters;
+    }
+
+    // When set, the XML is read on its own thread while the calling thread writes the batches
+    private boolean pipelined = false;
+    private int pipelineQueueCapacity = 10000;
+
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    public void setPipelineQueueCapacity(int pipelineQueueCapacity) {
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+    }
+
+    // Workers reading the sections of the transformed XML in parallel, each streaming the file on its own
+    // (see ParallelSectionReader, its queues take pipelineQueueCapacity points). Rows are still written on
+    // the loading connection and committed together. 0 or 1 reads the file once on the loading thread.
+    private int sectionWorkers = 0;
+
+    public void setSectionWorkers(int sectionWorkers) {
+        this.sectionWorkers = sectionWorkers;
+    }
+
+    // When set, only points that changed since the previous business date are inserted, see CurveDeltaFilter
+    private boolean deltaLoad = false;
+    private String snapshotDirectory = System.getProperty("user.dir") + "/xds/snapshots";
+
+    public void setDeltaLoad(boolean deltaLoad) {
+        this.deltaLoad = deltaLoad;
+    }
+
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    // When set, a load whose transformed XML has the same hash as the last committed load of the
+    // date is skipped (see LoadHashStore); forceReload loads it again anyway
+    private boolean skipIdenticalReloads = false;
+    private boolean forceReload = false;
+    private final LoadHashStore loadHashStore = new LoadHashStore();
+
+    public void setSkipIdenticalReloads(boolean skipIdenticalReloads) {
+        this.skipIdenticalReloads = skipIdenticalReloads;
+    }
+
+    public void setForceReload(boolean forceReload) {
+        this.forceReload = forceReload;
+    }
+
+    // When set, points whose value cannot be read go to a reject file under this directory and the rest of
+    // the load is committed (see CurveQuarantine); unset, the first such point fails the load
+    private String quarantineDirectory;
+    private int maxRejectedPoints = 100;
+    private double maxRejectedRatio = 0.01;
+
+    public void setQuarantineDirectory(String quarantineDirectory) {
+        this.quarantineDirectory = quarantineDirectory;
+    }
+
+    public void setMaxRejectedPoints(int maxRejectedPoints) {
+        this.maxRejectedPoints = maxRejectedPoints;
+    }
+
+    public void setMaxRejectedRatio(double maxRejectedRatio) {
+        this.maxRejectedRatio = maxRejectedRatio;
+    }
+
+    // Business dates loaded concurrently by backfill, each on its own connection
+    private int backfillWorkers = 4;
+
+    public void setBackfillWorkers(int backfillWorkers) {
+        this.backfillWorkers = backfillWorkers;
+    }
+
+    public void populatePLSTableFromTransformedXML(String location, String businessDate) {
+        populatePLSTableFromTransformedXML(Collections.singletonList(location), businessDate);
+    }
+
+    // Parses the transformed XML once and writes its rows for every location in the same batches
+    // and transaction
+    public void populatePLSTableFromTransformedXML(List<String> locations, String businessDate) {
+        Connection connection = null;
+
+        try {
+            LoadMetrics metrics = new LoadMetrics();
+            long connectStart = System.nanoTime();
+            connection = openConnection();
+            metrics.addStageNanos(LoadMetrics.Stage.CONNECT, System.nanoTime() - connectStart);
+
+            String xdsFilePath = System.getProperty("user.dir") +"/xds/transformedXML.xml";
+            File xmlFile = new File(xdsFilePath);
+
+            LoadResult result = loadTransformedXML(connection, locations, businessDate, xmlFile, metrics);
+            System.out.println("Data successfully inserted into mkt_yeild_pc: " + result);
+            if (result.getMetrics() != null) {
+                System.out.println("Load metrics: " + result.getMetrics());
+            }
 
         } catch (Exception e) {
             e.printStackTrace();
-            if (connection != null) {
-                try {
-                    connection.rollback();
-                } catch (Exception rollbackEx) {
-                    rollbackEx.printStackTrace();
-                }
-            }
         } finally {
             try {
-                if (preparedStatement != null) preparedStatement.close();
                 if (connection != null) connection.close();
             } catch (Exception ex) {
                 ex.printStackTrace();
@@ -96,307 +196,275 @@ public class IQServiceTransform {
         }
     }
 
-    // Sub-function to process MoneyMarketQuotes nodes
-    private void processMoneyMarketQuotes(Document document, PreparedStatement preparedStatement,
-                                          String location, String businessDate, String prevDate) throws Exception {
-        NodeList moneyMarketQuotesNodes = document.getElementsByTagName("MoneyMarketQuotes");
-
-        for (int i = 0; i < moneyMarketQuotesNodes.getLength(); i++) {
-            Node moneyMarketQuotesNode = moneyMarketQuotesNodes.item(i);
-
-            if (isChildOfElement(moneyMarketQuotesNode, "SwapCurve")) {
-                continue; // Ignore MoneyMarketQuotes inside SwapCurve
+    // Loads every business date of [fromDate, toDate] from <xmlDirectory>/transformedXML_<yyyy-MM-dd>.xml.
+    // Dates are loaded on backfillWorkers threads, each in its own transaction; a failed date is
+    // reported and does not stop the others.
+    public BackfillReport backfill(String location, String fromDate, String toDate, String xmlDirectory) throws Exception {
+        long start = System.nanoTime();
+        LocalDate from = LocalDate.parse(fromDate);
+        LocalDate to = LocalDate.parse(toDate);
+
+        // Load the calendar for the whole range once, the loads then only read it
+        List<LocalDate> businessDates = new ArrayList<>();
+        try (Connection connection = openConnection()) {
+            businessCalendars.preload(connection, location, from.minusDays(1), to);
+            for (LocalDate date = businessCalendars.nextBusinessDay(connection, location, from.minusDays(1));
+                 !date.isAfter(to); date = businessCalendars.nextBusinessDay(connection, location, date)) {
+                businessDates.add(date);
             }
+        }
 
-            if (moneyMarketQuotesNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element moneyMarketQuotesElement = (Element) moneyMarketQuotesNode;
-                String ccy = moneyMarketQuotesElement.getAttribute("ccy");
-                String rateFixingIndex = moneyMarketQuotesElement.getAttribute("rateFixingindex");
-
-                NodeList quoteNodes = moneyMarketQuotesElement.getElementsByTagName("Quote");
-
-                for (int j = 0; j < quoteNodes.getLength(); j++) {
-                    Element quoteElement = (Element) quoteNodes.item(j);
-                    String tenor = quoteElement.getAttribute("tenor");
-                    String midRate = quoteElement.getAttribute("midRate");
-
-                    String mkttype = determineMkttypeMoneyMarketQuotes(tenor);
-
-                    // Set values for the prepared statement
-                    preparedStatement.setString(1, location); // Location
-                    preparedStatement.setString(2, "PARIS"); // System_location
-                    preparedStatement.setString(3, "SUMMIT"); // Application
-                    preparedStatement.setString(4, "YCURVE"); // Curvetype
-                    preparedStatement.setString(5, businessDate); // Asofdate
-                    preparedStatement.setString(6, prevDate); // Prevdate
-                    preparedStatement.setString(7, "MSSEOD"); // Curveid
-                    preparedStatement.setString(8, mkttype); // Mkttype
-                    preparedStatement.setString(9, tenor); // Term
-                    preparedStatement.setNull(10, java.sql.Types.VARCHAR); // Todate (null)
-                    preparedStatement.setDouble(11, Double.parseDouble(midRate)); // Rate
-                    preparedStatement.setDouble(12, 0.0); // Spread (always 0.0)
-                    preparedStatement.setDate(13, new java.sql.Date(System.currentTimeMillis())); // Import_date
-                    preparedStatement.setString(14, ccy); // Commodity1
-                    preparedStatement.setString(15, rateFixingIndex); // Commodity2
-
-                    preparedStatement.addBatch();
-                }
+        BackfillReport report = new BackfillReport();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, backfillWorkers));
+        try {
+            List<Future<?>> loads = new ArrayList<>();
+            for (LocalDate date : businessDates) {
+                String businessDate = date.toString();
+                File xmlFile = new File(xmlDirectory, "transformedXML_" + businessDate + ".xml");
+                loads.add(executor.submit(() -> {
+                    LoadMetrics metrics = new LoadMetrics();
+                    long connectStart = System.nanoTime();
+                    try (Connection connection = openConnection()) {
+                        metrics.addStageNanos(LoadMetrics.Stage.CONNECT, System.nanoTime() - connectStart);
+                        if (!xmlFile.isFile()) {
+                            throw new Exception("Transformed XML not found: " + xmlFile);
+                        }
+                        report.add(new BackfillReport.DateResult(businessDate,
+                                loadTransformedXML(connection, Collections.singletonList(location), businessDate, xmlFile,
+                                        metrics),
+                                null));
+                    } catch (Exception e) {
+                        report.add(new BackfillReport.DateResult(businessDate, null, e));
+                    }
+                }));
             }
+            for (Future<?> load : loads) {
+                load.get();
+            }
+        } finally {
+            executor.shutdownNow();
         }
+
+        report.setElapsedNanos(System.nanoTime() - start);
+        System.out.println(report);
+        return report;
     }
 
-    // Sub-function to process SwapRates nodes
-    private void processSwapRates(Document document, PreparedStatement preparedStatement,
-                                  String location, String businessDate, String prevDate) throws Exception {
-        NodeList swapRatesNodes = document.getElementsByTagName("SwapRates");
+    // Loads one business date from a transformed XML file for the locations, in its own transaction on
+    // the connection. Commits on success, rolls back and rethrows on failure. Package-private for the
+    // benchmarks module, which uses the same package.
+    LoadResult loadTransformedXML(Connection connection, List<String> locations, String businessDate,
+                                  File xmlFile) throws Exception {
+        return loadTransformedXML(connection, locations, businessDate, xmlFile, new LoadMetrics());
+    }
 
-        for (int i = 0; i < swapRatesNodes.getLength(); i++) {
-            Node swapRatesNode = swapRatesNodes.item(i);
+    // Same, recording the stages in metrics; the outcome is also published through LoadMetricsRegistry
+    LoadResult loadTransformedXML(Connection connection, List<String> locations, String businessDate,
+                                  File xmlFile, LoadMetrics metrics) throws Exception {
+        long start = System.nanoTime();
+        CurveRowWriter batchWriter = null;
+        CurveQuarantine quarantine = null;
 
-            if (isChildOfElement(swapRatesNode, "SwapCurve")) {
-                continue; // Ignore SwapRates inside SwapCurve
-            }
+        try {
+            connection.setAutoCommit(false); // for batch processing
 
-            if (swapRatesNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element swapRatesElement = (Element) swapRatesNode;
-                String ccy = swapRatesElement.getAttribute("ccy");
-                String rateFixingIndex = swapRatesElement.getAttribute("rateFixingIndex");
-
-                NodeList quoteNodes = swapRatesElement.getElementsByTagName("Quote");
-
-                for (int j = 0; j < quoteNodes.getLength(); j++) {
-                    Element quoteElement = (Element) quoteNodes.item(j);
-                    String term = quoteElement.getAttribute("term");
-                    String midRate = quoteElement.getAttribute("midRate");
-
-                    String mkttype = determineMkttypeSwapRates(term);
-
-                    // Set values for the prepared statement
-                    preparedStatement.setString(1, location);
-                    preparedStatement.setString(2, "PARIS");
-                    preparedStatement.setString(3, "SUMMIT");
-                    preparedStatement.setString(4, "YCURVE");
-                    preparedStatement.setString(5, businessDate);
-                    preparedStatement.setString(6, prevDate);
-                    preparedStatement.setString(7, "MSSEOD");
-                    preparedStatement.setString(8, mkttype);
-                    preparedStatement.setString(9, term);
-                    preparedStatement.setNull(10, java.sql.Types.VARCHAR);
-                    preparedStatement.setDouble(11, Double.parseDouble(midRate));
-                    preparedStatement.setDouble(12, 0.0);
-                    preparedStatement.setDate(13, new java.sql.Date(System.currentTimeMillis()));
-                    preparedStatement.setString(14, ccy);
-                    preparedStatement.setString(15, rateFixingIndex);
-
-                    preparedStatement.addBatch();
+            String contentHash = null;
+            if (skipIdenticalReloads) {
+                try (InputStream inputStream = openTransformedXML(xmlFile)) {
+                    contentHash = LoadHashStore.sha256(inputStream);
+                }
+                if (!forceReload && isAlreadyLoaded(connection, locations, businessDate, contentHash)) {
+                    LoadResult skipped = LoadResult.alreadyLoaded(String.join(",", locations), businessDate,
+                            System.nanoTime() - start);
+                    LoadMetricsRegistry.getInstance().recordLoad(skipped, metrics);
+                    return skipped;
                 }
             }
-        }
-    }
 
-    // Sub-function to process InflationSwap nodes
-    private void processInflationSwap(Document document, PreparedStatement preparedStatement,
-                                      String location, String businessDate, String prevDate) throws Exception {
-        NodeList inflationSwapNodes = document.getElementsByTagName("InflationSwap");
+            // Previous business date of each location
+            long stageStart = System.nanoTime();
+            List<LoadTarget> targets = new ArrayList<>();
+            for (String location : locations) {
+                String prevDate = businessCalendars.previousBusinessDay(connection, location, LocalDate.parse(businessDate)).toString();
+                targets.add(new LoadTarget(location, prevDate));
+            }
+            metrics.addStageNanos(LoadMetrics.Stage.PREVIOUS_DATE, System.nanoTime() - stageStart);
 
-        for (int i = 0; i < inflationSwapNodes.getLength(); i++) {
-            Node inflationSwapNode = inflationSwapNodes.item(i);
+            if (partitionWriters > 1) {
+                batchWriter = new PartitionedCurveRowWriter(this::openConnection, writerMode, targets, businessDate,
+                        batchSize, partitionWriters);
+            } else {
+                batchWriter = writerMode.create(connection, targets, businessDate, batchSize);
+            }
+            CurveDeltaFilter deltaFilter = null;
+            if (deltaLoad) {
+                deltaFilter = new CurveDeltaFilter(Paths.get(snapshotDirectory), targets, businessDate);
+                batchWriter.setDeltaFilter(deltaFilter);
+            }
 
-            // Skip if this <InflationSwap> is inside an <InflationCurve>
-                if (isChildOfElement(inflationSwapNode, "InflationCurve")) {
-                    continue; // Ignore this InflationSwap
-                }
+            CurvePointHandler handler = batchWriter;
+            if (quarantineDirectory != null) {
+                quarantine = new CurveQuarantine(batchWriter, Paths.get(quarantineDirectory), String.join("_", locations),
+                        businessDate, maxRejectedPoints, maxRejectedRatio);
+                handler = quarantine;
+            }
 
-            if (inflationSwapNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element inflationSwapElement = (Element) inflationSwapNode;
-                String ccy = inflationSwapElement.getAttribute("ccy");
-                String rateFixingIndex = inflationSwapElement.getAttribute("indexType");
-
-                NodeList quoteNodes = inflationSwapElement.getElementsByTagName("Element");
-
-                for (int j = 0; j < elementNodes.getLength(); j++) {
-                        Element element = (Element) elementNodes.item(j);
-                        String maturity = element.getAttribute("maturity");
-                        String rate = element.getTextContent();
-
-                    String mkttype = determineMkttypeInflationSwap(maturity);
-
-                    // Set values for the prepared statement
-                    preparedStatement.setString(1, location);
-                    preparedStatement.setString(2, "PARIS");
-                    preparedStatement.setString(3, "SUMMIT");
-                    preparedStatement.setString(4, "YCURVE");
-                    preparedStatement.setString(5, businessDate);
-                    preparedStatement.setString(6, prevDate);
-                    preparedStatement.setString(7, "MSSEOD");
-                    preparedStatement.setString(8, mkttype);
-                    preparedStatement.setString(9, maturity);
-                    preparedStatement.setNull(10, java.sql.Types.VARCHAR);
-                    preparedStatement.setDouble(11, Double.parseDouble(midRate));
-                    preparedStatement.setDouble(12, 0.0);
-                    preparedStatement.setDate(13, new java.sql.Date(System.currentTimeMillis()));
-                    preparedStatement.setString(14, ccy);
-                    preparedStatement.setString(15, indexType);
-
-                    preparedStatement.addBatch();
-                }
+            CurvePointSource source = createCurvePointSource(xmlFile, metrics);
+            LoadMetrics.SectionCounter sectionCounter = metrics.countSections(handler);
+            stageStart = System.nanoTime();
+            if (pipelined) {
+                new CurveLoadPipeline(pipelineQueueCapacity).run(source, sectionCounter);
+            } else {
+                source.read(sectionCounter);
+            }
+            sectionCounter.finish();
+            // READ is what the parse and the writer's own stages leave of the read phase
+            long readNanos = System.nanoTime() - stageStart - metrics.getStageNanos(LoadMetrics.Stage.PARSE);
+            if (partitionWriters <= 1) {
+                readNanos -= batchWriter.getBindNanos() + batchWriter.getFlushNanos();
+            }
+            metrics.addStageNanos(LoadMetrics.Stage.READ, readNanos);
+            metrics.setBytesParsed(xmlFile.length());
+            if (quarantine != null) {
+                quarantine.checkRejectedRatio();
             }
-        }
-    }
 
-    // Sub-function to process SpreadCurve nodes
-    private void processSpreadCurve(Document document, PreparedStatement preparedStatement,
-                                    String location, String businessDate, String prevDate) throws Exception {
-        NodeList spreadCurveNodes = document.getElementsByTagName("SpreadCurve");
-
-        for (int i = 0; i < spreadCurveNodes.getLength(); i++) {
-            Node spreadCurveNode = spreadCurveNodes.item(i);
-
-            if (spreadCurveNode.getNodeType() == Node.ELEMENT_NODE) {
-                Element spreadCurveElement = (Element) spreadCurveNode;
-                String ccy = spreadCurveElement.getAttribute("ccy");
-                String rateFixingIndex = spreadCurveElement.getAttribute("rateFixingIndex");
-
-                NodeList spreadNodes = spreadCurveElement.getElementsByTagName("Quote");
-
-                for (int j = 0; j < spreadNodes.getLength(); j++) {
-                    Element spreadElement = (Element) spreadNodes.item(j);
-                    String term = spreadElement.getAttribute("term");
-                    String spreadValue = spreadElement.getAttribute("midRate");
-
-                    String mkttype = determineMkttypeSpreadCurve(term);
-
-                    // Set values for the prepared statement
-                    preparedStatement.setString(1, location);
-                    preparedStatement.setString(2, "PARIS");
-                    preparedStatement.setString(3, "SUMMIT");
-                    preparedStatement.setString(4, "YCURVE");
-                    preparedStatement.setString(5, businessDate);
-                    preparedStatement.setString(6, prevDate);
-                    preparedStatement.setString(7, "MSSEOD");
-                    preparedStatement.setString(8, mkttype);
-                    preparedStatement.setString(9, term);
-                    preparedStatement.setNull(10, java.sql.Types.VARCHAR);
-                    preparedStatement.setDouble(11, 0.0); // Rate is always 0.0 for SpreadCurve
-                    preparedStatement.setDouble(12, Double.parseDouble(spreadValue)); // Spread
-                    preparedStatement.setDate(13, new java.sql.Date(System.currentTimeMillis()));
-                    preparedStatement.setString(14, ccy);
-                    preparedStatement.setString(15, rateFixingIndex);
-
-                    preparedStatement.addBatch();
+            // Execute the remaining batch insert
+            batchWriter.flush();
+            metrics.addStageNanos(LoadMetrics.Stage.BIND, batchWriter.getBindNanos());
+            metrics.addStageNanos(LoadMetrics.Stage.EXECUTE_BATCH, batchWriter.getFlushNanos());
+            if (contentHash != null) {
+                for (String location : locations) {
+                    loadHashStore.record(connection, location, businessDate, contentHash);
                 }
             }
-        }
-    }
+            stageStart = System.nanoTime();
+            batchWriter.commit(); // before the load hash, so a failed commit is never recorded as loaded
+            connection.commit();
+            metrics.addStageNanos(LoadMetrics.Stage.COMMIT, System.nanoTime() - stageStart);
 
-    // Helper method to determine mkttype based on term - SPREAD CURVE
-    private String determineMkttypeSpreadCurve(String term) {
-        try {
-            if (term.matches("\\d+[DWMY]")) { // e.g., "1Y", "3M", "10D"
-                int numericTerm = Integer.parseInt(term.replaceAll("[^\\d]", ""));
-                char termUnit = term.charAt(term.length() - 1);
-
-                // MM if the term is less than 1 year (Y)
-                if (termUnit == 'Y' && numericTerm < 1) {
-                    return "MM";
-                } else if (termUnit == 'M' || termUnit == 'W' || termUnit == 'D') {
-                    return "MM";
-                } else if (term.matches("[A-Z]{3}\\d{2}")) { // e.g., "DEC25"
-                    return "FUT";
-                } else {
-                    return "AIC";
+            // The load is committed, a snapshot or reject file that cannot be saved must not report it as failed
+            if (deltaFilter != null) {
+                try {
+                    deltaFilter.saveSnapshots(targets);
+                } catch (Exception snapshotEx) {
+                    System.err.println("Curve snapshots of " + businessDate + " not saved, the next delta load writes every point");
+                    snapshotEx.printStackTrace();
+                    try {
+                        deltaFilter.deleteSnapshots(targets);
+                    } catch (Exception deleteEx) {
+                        deleteEx.printStackTrace();
+                    }
                 }
-            } else {
-                return "AIC";
             }
-        } catch (Exception e) {
-            return "AIC"; // Default to AIC in case of any error
-        }
-
-        // Helper method to determine mkttype based on term - Inflation Swap
-        private String determineMkttypeInflationSwap(String maturity) {
-          try {
-              if (maturity.matches("\\d+[DWMY]")) { // e.g., "1Y", "3M", "10D"
-                  int numericMaturity = Integer.parseInt(maturity.replaceAll("[^\\d]", ""));
-                  char maturityUnit = maturity.charAt(maturity.length() - 1);
-
-                  if (maturityUnit == 'Y' && numericMaturity < 1) {
-                      return "MM";
-                  } else if (maturityUnit == 'M' || maturityUnit == 'W' || maturityUnit == 'D') {
-                      return "MM";
-                  } else if (maturity.matches("[A-Z]{3}\\d{2}")) { // e.g., "DEC25"
-                      return "FUT";
-                  } else {
-                      return "AIC";
-                  }
-              } else {
-                  return "AIC";
-              }
-          } catch (Exception e) {
-              return "AIC"; // Default to AIC in case of any error
-          }
-      }
-
-      // Helper method to determine mkttype based on term - MoneyMarketQuotes
-      private String determineMkttypeMoneyMarketQuotes(String tenor) {
-        try {
-            if (tenor.matches("\\d+[DWMY]")) { // e.g., "1Y", "3M", "10D"
-                int numericTenor = Integer.parseInt(tenor.replaceAll("[^\\d]", ""));
-                char tenorUnit = tenor.charAt(tenor.length() - 1);
-
-                if (tenorUnit == 'Y' && numericTenor < 1) {
-                    return "MM";
-                } else if (tenorUnit == 'M' || tenorUnit == 'W' || tenorUnit == 'D') {
-                    return "MM";
-                } else if (tenor.matches("[A-Z]{3}\\d{2}")) { // e.g., "DEC25"
-                    return "FUT";
-                } else {
-                    return "AIC";
+            if (quarantine != null) {
+                try {
+                    quarantine.saveRejects();
+                    if (quarantine.getRejectedCount() > 0) {
+                        System.out.println(quarantine.getRejectedCount() + " curve points rejected, see " + quarantine.getRejectFile());
+                    }
+                } catch (Exception rejectsEx) {
+                    System.err.println(quarantine.getRejectedCount() + " curve points rejected, " + quarantine.getRejectFile() + " not saved");
+                    rejectsEx.printStackTrace();
+                    try {
+                        quarantine.discard();
+                    } catch (Exception discardEx) {
+                        discardEx.printStackTrace();
+                    }
                 }
-            } else {
-                return "AIC";
             }
+
+            LoadResult result = new LoadResult(String.join(",", locations), businessDate, batchWriter.getRowCount(),
+                    deltaFilter != null ? deltaFilter.getCarriedForwardCount() : 0, batchWriter.getFlushCount(),
+                    batchWriter.getFlushNanos(), System.nanoTime() - start, metrics);
+            LoadMetricsRegistry.getInstance().recordLoad(result, metrics);
+            return result;
         } catch (Exception e) {
-            return "AIC"; // Default to AIC in case of any error
+            LoadMetricsRegistry.getInstance().recordFailure(String.join(",", locations), businessDate,
+                    System.nanoTime() - start, metrics, e);
+            try {
+                if (batchWriter != null) batchWriter.rollback();
+            } catch (Exception rollbackEx) {
+                rollbackEx.printStackTrace();
+            }
+            try {
+                connection.rollback();
+            } catch (Exception rollbackEx) {
+                rollbackEx.printStackTrace();
+            }
+            try {
+                if (quarantine != null) quarantine.discard();
+            } catch (Exception discardEx) {
+                discardEx.printStackTrace();
+            }
+            throw e;
+        } finally {
+            if (batchWriter != null) batchWriter.close();
         }
     }
 
-    // Helper method to determine mkttype based on term - SwapRates
-    private String determineMkttypeSwapRates(String term) {
-        try {
-            if (term.matches("\\d+[DWMY]")) { // e.g., "1Y", "3M", "10D"
-                int numericTerm = Integer.parseInt(term.replaceAll("[^\\d]", ""));
-                char termUnit = term.charAt(term.length() - 1);
-
-                if (termUnit == 'Y' && numericTerm < 1) {
-                    return "MM";
-                } else if (termUnit == 'M' || termUnit == 'W' || termUnit == 'D') {
-                    return "MM";
-                } else if (term.matches("[A-Z]{3}\\d{2}")) { // e.g., "DEC25"
-                    return "FUT";
-                } else {
-                    return "AIC";
-                }
-            } else {
-                return "AIC";
+    private boolean isAlreadyLoaded(Connection connection, List<String> locations, String businessDate,
+                                    String contentHash) throws Exception {
+        for (String location : locations) {
+            if (!contentHash.equals(loadHashStore.loadedHash(connection, location, businessDate))) {
+                return false;
             }
-        } catch (Exception e) {
-            return "AIC"; // Default to AIC in case of any error
         }
+        return true;
     }
 
+    private Connection openConnection() throws Exception {
+        if (plsConnect != null && plsDatabase != null) {
+            return plsConnect.getPLSConnection(plsDatabase);
+        }
 
+        // Oracle DB connection setup
+        String jdbcUrl = "jdbc:oracle:thin:@//host:port/service";
+        String username = "your_db_username";
+        String password = "your_db_password";
+        return DriverManager.getConnection(jdbcUrl, username, password);
+    }
 
-    // Helper method to check if the current node is a child of a given element name
-    private boolean isChildOfElement(Node node, String parentElementName) {
-        Node parentNode = node.getParentNode();
-        while (parentNode != null) {
-            if (parentNode.getNodeType() == Node.ELEMENT_NODE &&
-                ((Element) parentNode).getTagName().equals(parentElementName)) {
-                return true;
+    // Reader for the transformed XML in the configured ingest mode
+    private CurvePointSource createCurvePointSource(File xmlFile, LoadMetrics metrics) {
+        if (sectionWorkers > 1) {
+            return new ParallelSectionReader(() -> openTransformedXML(xmlFile), tenorSymbolTable, sectionWorkers,
+                    pipelineQueueCapacity);
+        }
+        if (streamingIngest) {
+            // Stream the transformed XML, rows are handed over as they are read
+            return handler -> {
+                try (InputStream inputStream = openTransformedXML(xmlFile)) {
+                    return new StreamingCurveReader(tenorSymbolTable).read(inputStream, handler);
+                }
+            };
+        }
+        return handler -> {
+            // Parse the transformed XML file
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            Document document;
+            long parseStart = System.nanoTime();
+            try (InputStream inputStream = openTransformedXML(xmlFile)) {
+                document = builder.parse(inputStream, xmlFile.toURI().toString());
             }
-            parentNode = parentNode.getParentNode();
+            document.getDocumentElement().normalize();
+            metrics.addStageNanos(LoadMetrics.Stage.PARSE, System.nanoTime() - parseStart);
+
+            // Route every curve section in a single walk of the document
+            CurveSectionRouter router = new CurveSectionRouter(tenorSymbolTable);
+            router.register(CurveSection.MONEY_MARKET_QUOTES, handler);
+            router.register(CurveSection.SWAP_RATES, handler);
+            router.register(CurveSection.INFLATION_SWAP, handler);
+            router.register(CurveSection.SPREAD_CURVE, handler);
+            return router.route(document);
+        };
+    }
+
+    private InputStream openTransformedXML(File xmlFile) throws Exception {
+        if (memoryMappedInput) {
+            return MappedFileInputStream.open(xmlFile); // falls back to a stream where mmap is not supported
         }
-        return false;
+        return new BufferedInputStream(new FileInputStream(xmlFile));
     }
 }
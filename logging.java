@@ -7,6 +7,10 @@ import org.slf4j.LoggerFactory;
 
 private static final Logger logger = LoggerFactory.getLogger(IQServiceTransform.class);
 
+// Per-row output of the process* loops is sampled, see SampledRowLogger. The appender in logback.xml is
+// asynchronous, so the loops never wait on disk.
+private static final int ROW_LOG_SAMPLE_EVERY = 1000;
+
 
 public void populatePLSTableFromTransformedXML(String location, String businessDate) {
     Connection connection = null;
@@ -22,25 +26,10 @@ public void populatePLSTableFromTransformedXML(String location, String businessD
         connection = DriverManager.getConnection(jdbcUrl, username, password);
         connection.setAutoCommit(false); // for batch processing
 
-        // Retrieve the previous business date from the database
-        String prevDateQuery = "SELECT GETPREVIOUSBUSINESSDAY(?, 'PARIS', ?) FROM DUAL";
-        try (PreparedStatement prevDateStatement = connection.prepareStatement(prevDateQuery)) {
-            prevDateStatement.setString(1, location);
-            prevDateStatement.setString(2, businessDate);
-            logger.info("Executing query to retrieve previous business date with location: {} and businessDate: {}", location, businessDate);
-
-            try (ResultSet rs = prevDateStatement.executeQuery()) {
-                if (rs.next()) {
-                    prevDate = rs.getString(1);
-                    logger.info("Previous business date retrieved: {}", prevDate);
-                }
-            }
-        }
-
-        if (prevDate == null) {
-            logger.error("Failed to retrieve previous business date.");
-            throw new Exception("Failed to retrieve previous business date.");
-        }
+        // Retrieve the previous business date from the in-memory calendar (loaded once per location)
+        logger.info("Looking up previous business date with location: {} and businessDate: {}", location, businessDate);
+        prevDate = businessCalendars.previousBusinessDay(connection, location, LocalDate.parse(businessDate)).toString();
+        logger.info("Previous business date retrieved: {}", prevDate);
         
         // Parse the transformed XML file
         String xdsFilePath = System.getProperty("user.dir") + "/xds/transformedXML.xml";
@@ -60,23 +49,25 @@ public void populatePLSTableFromTransformedXML(String location, String businessD
                      "Prevdate, Curveid, Mkttype, Term, Todate, Rate, Spread, Import_date, Commodity1, Commodity2) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         preparedStatement = connection.prepareStatement(sql);
+        SampledRowLogger rowLogger = new SampledRowLogger(logger, ROW_LOG_SAMPLE_EVERY);
 
         // Process MoneyMarketQuotes
-        processMoneyMarketQuotes(document, preparedStatement, location, businessDate, prevDate);
+        processMoneyMarketQuotes(document, preparedStatement, location, businessDate, prevDate, rowLogger);
 
         // Process SwapRates
-        processSwapRates(document, preparedStatement, location, businessDate, prevDate);
+        processSwapRates(document, preparedStatement, location, businessDate, prevDate, rowLogger);
 
         // Process InflationSwap
-        processInflationSwap(document, preparedStatement, location, businessDate, prevDate);
+        processInflationSwap(document, preparedStatement, location, businessDate, prevDate, rowLogger);
 
         // Process SpreadCurve
-        processSpreadCurve(document, preparedStatement, location, businessDate, prevDate);
+        processSpreadCurve(document, preparedStatement, location, businessDate, prevDate, rowLogger);
 
         // Execute batch insert
         logger.info("Executing batch insert into mkt_yeild_pc.");
         preparedStatement.executeBatch();
         connection.commit();
+        rowLogger.summary();
         logger.info("Data successfully inserted into mkt_yeild_pc.");
 
     } catch (Exception e) {
@@ -101,7 +92,8 @@ public void populatePLSTableFromTransformedXML(String location, String businessD
  // processMoneyMarketQuotes
 
 private void processMoneyMarketQuotes(Document document, PreparedStatement preparedStatement,
-                                      String location, String businessDate, String prevDate) throws Exception {
+                                      String location, String businessDate, String prevDate,
+                                      SampledRowLogger rowLogger) throws Exception {
     NodeList moneyMarketQuotesNodes = document.getElementsByTagName("MoneyMarketQuotes");
 
     for (int i = 0; i < moneyMarketQuotesNodes.getLength(); i++) {
@@ -126,9 +118,8 @@ private void processMoneyMarketQuotes(Document document, PreparedStatement prepa
                 String tenor = quoteElement.getAttribute("tenor");
                 String midRate = quoteElement.getAttribute("midRate");
 
-                logger.info("Inserting Quote with tenor: {} and midRate: {}", tenor, midRate);
-
-                String mkttype = determineMkttypeMoneyMarketQuotes(tenor);
+                String mkttype = TenorClassifier.classify(tenor);
+                rowLogger.row(CurveSection.MONEY_MARKET_QUOTES, ccy, rateFixingIndex, tenor, midRate, mkttype);
 
                 preparedStatement.setString(1, location);
                 preparedStatement.setString(2, "PARIS");
@@ -156,7 +147,8 @@ private void processMoneyMarketQuotes(Document document, PreparedStatement prepa
 
 // Sub-function to process SwapRates nodes
 private void processSwapRates(Document document, PreparedStatement preparedStatement,
-                              String location, String businessDate, String prevDate) throws Exception {
+                              String location, String businessDate, String prevDate,
+                              SampledRowLogger rowLogger) throws Exception {
     NodeList swapRatesNodes = document.getElementsByTagName("SwapRates");
     
     for (int i = 0; i < swapRatesNodes.getLength(); i++) {
@@ -181,9 +173,8 @@ private void processSwapRates(Document document, PreparedStatement preparedState
                 String term = quoteElement.getAttribute("term");
                 String midRate = quoteElement.getAttribute("midRate");
 
-                logger.info("Inserting Quote with term: {} and midRate: {}", term, midRate);
-
-                String mkttype = determineMkttypeSwapRates(term);
+                String mkttype = TenorClassifier.classify(term);
+                rowLogger.row(CurveSection.SWAP_RATES, ccy, rateFixingIndex, term, midRate, mkttype);
 
                 preparedStatement.setString(1, location);
                 preparedStatement.setString(2, "PARIS");
@@ -212,7 +203,8 @@ private void processSwapRates(Document document, PreparedStatement preparedState
 
 // Sub-function to process InflationSwap nodes
 private void processInflationSwap(Document document, PreparedStatement preparedStatement,
-                                  String location, String businessDate, String prevDate) throws Exception {
+                                  String location, String businessDate, String prevDate,
+                                  SampledRowLogger rowLogger) throws Exception {
     NodeList inflationSwapNodes = document.getElementsByTagName("InflationSwap");
     
     for (int i = 0; i < inflationSwapNodes.getLength(); i++) {
@@ -237,9 +229,8 @@ private void processInflationSwap(Document document, PreparedStatement preparedS
                 String maturity = element.getAttribute("maturity");
                 String rate = element.getTextContent();
 
-                logger.info("Inserting Element with maturity: {} and rate: {}", maturity, rate);
-
-                String mkttype = determineMkttypeInflationSwap(maturity);
+                String mkttype = TenorClassifier.classify(maturity);
+                rowLogger.row(CurveSection.INFLATION_SWAP, ccy, indexType, maturity, rate, mkttype);
 
                 preparedStatement.setString(1, location);
                 preparedStatement.setString(2, "PARIS");
@@ -267,7 +258,8 @@ private void processInflationSwap(Document document, PreparedStatement preparedS
 
 // Sub-function to process SpreadCurve nodes
 private void processSpreadCurve(Document document, PreparedStatement preparedStatement,
-                                String location, String businessDate, String prevDate) throws Exception {
+                                String location, String businessDate, String prevDate,
+                                SampledRowLogger rowLogger) throws Exception {
     NodeList spreadCurveNodes = document.getElementsByTagName("SpreadCurve");
     
     for (int i = 0; i < spreadCurveNodes.getLength(); i++) {
@@ -287,9 +279,8 @@ private void processSpreadCurve(Document document, PreparedStatement preparedSta
                 String tenor = quoteElement.getAttribute("tenor");
                 String spread = quoteElement.getAttribute("spread");
 
-                logger.info("Inserting Quote with tenor: {} and spread: {}", tenor, spread);
-
-                String mkttype = determineMkttypeSpreadCurve(tenor);
+                String mkttype = TenorClassifier.classify(tenor);
+                rowLogger.row(CurveSection.SPREAD_CURVE, ccy, rateFixingIndex, tenor, spread, mkttype);
 
                 preparedStatement.setString(1, location);
                 preparedStatement.setString(2, "PARIS");
@@ -11,22 +11,8 @@ public void populatePLSTableFromTransformedXML(String location, String businessD
         connection = DriverManager.getConnection(jdbcUrl, username, password);
         connection.setAutoCommit(false); // for batch processing
 
-        // Retrieve the previous business date from the database
-        String prevDateQuery = "SELECT GETPREVIOUSBUSINESSDAY(?, 'PARIS', ?) FROM DUAL";
-        try (PreparedStatement prevDateStatement = connection.prepareStatement(prevDateQuery)) {
-            prevDateStatement.setString(1, location);
-            prevDateStatement.setString(2, businessDate);
-
-            try (ResultSet rs = prevDateStatement.executeQuery()) {
-                if (rs.next()) {
-                    prevDate = rs.getString(1);
-                }
-            }
-        }
-
-        if (prevDate == null) {
-            throw new Exception("Failed to retrieve previous business date.");
-        }
+        // Retrieve the previous business date from the in-memory calendar (loaded once per location)
+        prevDate = businessCalendars.previousBusinessDay(connection, location, LocalDate.parse(businessDate)).toString();
 
         // Parse the transformed XML file
         String xdsFilePath = System.getProperty("user.dir") + "/xds/transformedXML.xml";